@@ -0,0 +1,89 @@
+package com.example.ex04;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Czas wstawienia notatki w miarę, jak magazyn rośnie do miliona notatek: pojedyncze
+ * {@code save} (ścieżka POST api/notes), {@code saveAll} po 1000 (POST api/notes/bulk) i dla
+ * porównania stary createNote, który po każdym zapisie mapował cały magazyn. To nie JMH,
+ * tylko prosty pomiar z rozgrzewką, więc leży w src/bench, a nie w testach; kompiluje się
+ * i uruchamia tylko z profilem {@code benchmark}:
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbench.args=200000
+ * </pre>
+ */
+public class NoteInsertBenchmark {
+    private static final int NOTES = 1_000_000;
+    private static final int WINDOW = 100_000;
+    private static final int BATCH = 1000;
+    private static final int OLD_CREATE_SAMPLES = 5;
+
+    public static void main(String[] args) {
+        int notes = args.length > 0 ? Integer.parseInt(args[0]) : NOTES;
+
+        // rozgrzewka JIT na osobnym magazynie
+        fillOneByOne(new NoteRepository(), WINDOW, false);
+
+        System.out.println("save (POST api/notes)");
+        fillOneByOne(new NoteRepository(), notes, true);
+
+        System.out.println("saveAll po " + BATCH + " (POST api/notes/bulk) na notatkę | stary createNote"
+                + " (save + cały magazyn w odpowiedzi), mediana");
+        NoteRepository bulk = new NoteRepository();
+        for (int window = 0; window < notes / WINDOW; window++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < WINDOW; i += BATCH) {
+                List<Note> batch = new ArrayList<>(BATCH);
+                for (int j = 0; j < BATCH; j++) {
+                    batch.add(note(window * WINDOW + i + j));
+                }
+                bulk.saveAll(batch);
+            }
+            double bulkMicros = (System.nanoTime() - started) / 1e3 / WINDOW;
+            System.out.printf("  %,9d notatek: %6.2f us | %9.2f us%n", bulk.count(), bulkMicros, oldCreate(bulk));
+        }
+    }
+
+    // tak działał createNote przed zmianą: zapis, potem odpowiedź z każdą notatką
+    private static double oldCreate(NoteRepository repository) {
+        long[] latencies = new long[OLD_CREATE_SAMPLES];
+        for (int i = 0; i < latencies.length; i++) {
+            long started = System.nanoTime();
+            repository.save(note(i));
+            repository.find(null, null, null)
+                    .map(note -> note.title() + note.content())
+                    .toList();
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        return latencies[latencies.length / 2] / 1e3;
+    }
+
+    private static void fillOneByOne(NoteRepository repository, int notes, boolean print) {
+        long[] latencies = new long[WINDOW];
+        for (int window = 0; window < notes / WINDOW; window++) {
+            for (int i = 0; i < WINDOW; i++) {
+                Note note = note(window * WINDOW + i);
+                long started = System.nanoTime();
+                repository.save(note);
+                latencies[i] = System.nanoTime() - started;
+            }
+            if (print) {
+                long total = Arrays.stream(latencies).sum();
+                Arrays.sort(latencies);
+                // średnią podbijają rzadkie przerwy (GC, powiększanie map), mediana i p99 pokazują typowy zapis
+                System.out.printf("  %,9d notatek: mediana %5.2f us, p99 %6.2f us, średnio %6.2f us%n",
+                        repository.count(), latencies[WINDOW / 2] / 1e3, latencies[WINDOW * 99 / 100] / 1e3,
+                        total / 1e3 / WINDOW);
+            }
+        }
+    }
+
+    private static Note note(int i) {
+        return new Note(null, "Note " + i, "Content of note " + i + " word" + i % 5000, "author-" + i % 100);
+    }
+}
@@ -1,11 +1,12 @@
 package com.example.ex04;
 
-import java.util.List;
-
+/**
+ * Komentarze nie są częścią rekordu - trzyma je {@link NoteRepository} osobno dla każdej
+ * notatki, więc dodanie komentarza nie tworzy nowej kopii notatki.
+ */
 public record Note(
                 Long id,
                 String title,
                 String content,
-                String author,
-                List<Comment> comments) {
+                String author) {
 }
@@ -0,0 +1,39 @@
+package com.example.ex04;
+
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Komentarze jednej notatki, tak samo jak notatki w {@link NoteRepository}: komentarz po id
+ * to jedno {@code get} na {@link ConcurrentHashMap}, a kolejność do stronicowania trzyma
+ * posortowany zbiór id. Dodanie komentarza nie kopiuje ani notatki, ani listy komentarzy,
+ * a równoległe dodania do tej samej notatki nie gubią się nawzajem.
+ */
+class NoteComments {
+    private final Map<Long, Comment> comments = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> ids = new ConcurrentSkipListSet<>();
+    private final AtomicLong idCounter = new AtomicLong(1);
+
+    Comment add(String text) {
+        Comment comment = new Comment(idCounter.getAndIncrement(), text);
+        // najpierw mapa, potem indeks, więc id z indeksu zawsze ma już komentarz
+        comments.put(comment.id(), comment);
+        ids.add(comment.id());
+        return comment;
+    }
+
+    Optional<Comment> find(Long id) {
+        return Optional.ofNullable(comments.get(id));
+    }
+
+    /** Komentarze w kolejności id, leniwie, o id większym niż {@code afterId} (null = od początku). */
+    Stream<Comment> after(Long afterId) {
+        NavigableSet<Long> source = afterId != null ? ids.tailSet(afterId, false) : ids;
+        return source.stream().map(comments::get);
+    }
+}
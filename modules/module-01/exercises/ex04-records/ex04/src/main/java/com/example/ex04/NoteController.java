@@ -1,10 +1,12 @@
 package com.example.ex04;
 
-import java.util.ArrayList;
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 import java.util.NoSuchElementException;
-import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -14,59 +16,85 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.example.ex04.note.NoteResponse;
 import com.example.ex04.note.CreateNoteRequest;
+import com.example.ex04.note.CreateNotesResponse;
 import com.example.ex04.note.UpdateNoteRequest;
 import com.example.ex04.comment.CommentResponse;
+import com.example.ex04.comment.CreateCommentRequest;
 
 @RestController
 @RequestMapping("api/notes")
 public class NoteController {
-    private final List<Note> notes = new ArrayList<>();
-    private final AtomicLong idCounter = new AtomicLong(1);
-
-    public NoteController() {
-        notes.add(new Note(
-                idCounter.getAndIncrement(),
-                "Shopping list",
-                "Milk, bread, eggs, butter",
-                "Jan",
-                new ArrayList<>(List.of(new Comment(1L, "Comment 1"), new Comment(2L, "Comment 2")))));
-
-        notes.add(new Note(
-                idCounter.getAndIncrement(),
-                "Learning Spring",
-                "Master @RestController and @RequestParam",
-                "Anna",
-                new ArrayList<>()));
-
-        notes.add(new Note(
-                idCounter.getAndIncrement(),
-                "Workout plan",
-                "Monday: chest, Wednesday: back, Friday: legs",
-                "Piotr",
-                new ArrayList<>()));
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BULK_SIZE = 10_000;
+
+    private final NoteRepository notes;
+
+    public NoteController(NoteRepository notes) {
+        this.notes = notes;
     }
 
+    /**
+     * Strona notatek w kolejności id. Kolejną stronę pobiera się przez {@code after} z
+     * nagłówka {@value #NEXT_CURSOR_HEADER} (brak nagłówka = ostatnia strona); wtedy koszt
+     * zależy tylko od rozmiaru strony. Stare {@code page} nadal działa, ale musi przejść
+     * przez wszystkie wcześniejsze dopasowania.
+     */
     @GetMapping()
-    public List<NoteResponse> getAll(
+    public ResponseEntity<List<NoteResponse>> getAll(
             @RequestParam(required = false) String author,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) Long after,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-
-        List<Note> filteredNotes = this.notes.stream()
-                .filter(note -> author == null || note.author().equalsIgnoreCase(author))
-                .filter(note -> search == null || note.title().toLowerCase().contains(search.toLowerCase()))
+        if (size < 1 || size > MAX_PAGE_SIZE || page < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // o jedną więcej, żeby wiedzieć, czy jest następna strona
+        List<Note> pageNotes = this.notes.find(author, search, after)
+                .skip(after == null ? (long) page * size : 0)
+                .limit(size + 1)
                 .toList();
 
-        int start = Math.min(page * size, filteredNotes.size());
-        int end = Math.min(start + size, filteredNotes.size());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (pageNotes.size() > size) {
+            pageNotes = pageNotes.subList(0, size);
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(pageNotes.getLast().id()));
+        }
+        return response.body(pageNotes.stream()
+                .map(this::mapToResponse)
+                .toList());
+    }
 
-        return filteredNotes.subList(start, end).stream()
+    /**
+     * Wyszukiwanie pełnotekstowe po tytule i treści, wyniki od najtrafniejszego. {@code mode}
+     * to {@code and} (wszystkie słowa, domyślnie) albo {@code or} (dowolne). W odróżnieniu od
+     * {@code search} w {@link #getAll} dopasowuje całe słowa, ale nie przegląda notatek po
+     * kolei, tylko czyta listy wystąpień słów z zapytania.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<NoteResponse>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "and") String mode,
+            @RequestParam(defaultValue = "10") int limit) {
+        SearchMode searchMode;
+        try {
+            searchMode = SearchMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(this.notes.search(q, searchMode, limit).stream()
                 .map(this::mapToResponse)
-                .toList();
+                .toList());
     }
 
     @GetMapping("/{id}")
@@ -74,65 +102,121 @@ public class NoteController {
         return mapToResponse(findNoteById(id));
     }
 
+    /** Strona komentarzy w kolejności id, z kursorem {@code after} jak w {@link #getAll}. */
+    @GetMapping("/{id}/comments")
+    public ResponseEntity<List<CommentResponse>> getComments(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "10") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        findNoteById(id);
+
+        List<Comment> pageComments = this.notes.findComments(id, after)
+                .limit(size + 1)
+                .toList();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (pageComments.size() > size) {
+            pageComments = pageComments.subList(0, size);
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(pageComments.getLast().id()));
+        }
+        return response.body(pageComments.stream()
+                .map(this::mapToResponse)
+                .toList());
+    }
+
     @GetMapping("/{id}/comments/{cid}")
     public CommentResponse getComment(@PathVariable Long id, @PathVariable Long cid) {
-        Note note = findNoteById(id); // Pobieramy pełną notatkę (z komentarzami)
-        return note.comments().stream()
-                .filter(comment -> comment.id().equals(cid))
-                .map(comment -> new CommentResponse(comment.id(), comment.text()))
-                .findFirst()
+        findNoteById(id);
+        // Komentarz po id, bez przeglądania pozostałych
+        return this.notes.findComment(id, cid)
+                .map(this::mapToResponse)
                 .orElseThrow(() -> new NoSuchElementException("Comment not found " + cid));
     }
 
+    /** Dopisuje komentarz; notatka nie jest przy tym kopiowana. */
+    @PostMapping("/{id}/comments")
+    public ResponseEntity<CommentResponse> addComment(@PathVariable Long id,
+            @RequestBody CreateCommentRequest request) {
+        Comment comment = this.notes.addComment(id, request.text())
+                .orElseThrow(() -> new NoSuchElementException("Note not found " + id));
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{cid}")
+                .buildAndExpand(comment.id())
+                .toUri();
+        return ResponseEntity.created(location).body(mapToResponse(comment));
+    }
+
+    /**
+     * Tworzy notatkę i zwraca tylko ją (201 + {@code Location}), więc koszt odpowiedzi nie
+     * rośnie z liczbą notatek w magazynie.
+     */
     @PostMapping()
-    public List<NoteResponse> createNote(@RequestBody CreateNoteRequest request) {
-        Note newNote = new Note(
-                idCounter.getAndIncrement(),
-                request.title(),
-                request.content(),
-                request.author(),
-                new ArrayList<>() // Nowa notatka nie ma komentarzy na starcie
-        );
-        this.notes.add(newNote);
+    public ResponseEntity<NoteResponse> createNote(@RequestBody CreateNoteRequest request) {
+        Note newNote = this.notes.save(toNote(request));
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(newNote.id())
+                .toUri();
+        return ResponseEntity.created(location).body(mapToResponse(newNote));
+    }
 
-        return this.notes.stream()
-                .map(this::mapToResponse)
+    /** Tworzy wiele notatek naraz; w odpowiedzi tylko nowe id, w kolejności żądania. */
+    @PostMapping("/bulk")
+    public ResponseEntity<CreateNotesResponse> createNotes(@RequestBody List<CreateNoteRequest> requests) {
+        if (requests.isEmpty() || requests.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<Long> ids = this.notes.saveAll(requests.stream()
+                .map(this::toNote)
+                .toList())
+                .stream()
+                .map(Note::id)
                 .toList();
+        return ResponseEntity.status(HttpStatus.CREATED).body(new CreateNotesResponse(ids));
     }
 
     @PutMapping("/{id}")
     public NoteResponse updateNote(@PathVariable Long id, @RequestBody UpdateNoteRequest request) {
-        Note oldNote = findNoteById(id);
-
-        Note newNote = new Note(
+        // Podmiana atomowa - równoległa zmiana tej samej notatki nie zostanie nadpisana
+        Note newNote = notes.update(id, oldNote -> new Note(
                 id,
                 request.title(),
                 request.content(),
-                oldNote.author(), // Autor zostaje stary
-                oldNote.comments() // Komentarze zostają stare
-        );
-
-        int index = notes.indexOf(oldNote);
-        notes.set(index, newNote);
+                oldNote.author() // Autor zostaje stary, komentarze zostają w repozytorium
+        )).orElseThrow(() -> new NoSuchElementException("Note not found " + id));
 
         return mapToResponse(newNote);
     }
 
     @DeleteMapping("/{id}")
     public void deleteNote(@PathVariable Long id) {
-        Note note = findNoteById(id);
-        this.notes.remove(note);
+        if (!this.notes.delete(id)) {
+            throw new NoSuchElementException("Note not found " + id);
+        }
     }
 
     // Helpery, które ułatwiają życie i czyszczą kod kontrolera
 
     private Note findNoteById(Long id) {
-        return this.notes.stream()
-                .filter(note -> note.id().equals(id))
-                .findFirst()
+        return this.notes.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Note not found " + id));
     }
 
+    private Note toNote(CreateNoteRequest request) {
+        return new Note(
+                null, // id nadaje repozytorium
+                request.title(),
+                request.content(),
+                request.author() // Nowa notatka nie ma komentarzy na starcie
+        );
+    }
+
     private NoteResponse mapToResponse(Note note) {
         return new NoteResponse(
                 note.id(),
@@ -140,4 +224,8 @@ public class NoteController {
                 note.content(),
                 note.author());
     }
+
+    private CommentResponse mapToResponse(Comment comment) {
+        return new CommentResponse(comment.id(), comment.text());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+package com.example.ex04;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Repository;
+
+/**
+ * Notatki w pamięci, bezpieczne dla równoległych żądań.
+ * <p>
+ * Wyszukiwanie po id to jedno {@code get} na {@link ConcurrentHashMap}. Kolejność (rosnące
+ * id, stała między stronami) trzyma posortowany zbiór id, a filtr po autorze - indeks autor
+ * -> id. Oba indeksy zmieniają się wewnątrz {@code compute} na danym id, więc zapisy do tej
+ * samej notatki są szeregowane, a zapisy do różnych notatek nie blokują się nawzajem.
+ * Odczyt w trakcie zapisu może nie zobaczyć świeżo dodanej notatki, ale nigdy nie rzuca
+ * {@code ConcurrentModificationException}.
+ * <p>
+ * Tytuł małymi literami liczymy raz, przy zapisie, a {@link #find} jest leniwe i zaczyna od
+ * kursora ({@code tailSet}), więc strona kosztuje tyle, ile notatek trzeba obejrzeć do jej
+ * zapełnienia - niezależnie od tego, jak daleko jest od początku.
+ * <p>
+ * Wyszukiwanie pełnotekstowe po tytule i treści ({@link #search}) idzie przez
+ * {@link NoteSearchIndex}, zmieniany w tym samym {@code compute} co pozostałe indeksy.
+ * <p>
+ * Komentarze każdej notatki żyją w jej własnym {@link NoteComments}; zmiana notatki
+ * przenosi je do nowego wpisu bez kopiowania, a dodanie komentarza w ogóle wpisu nie rusza.
+ */
+@Repository
+public class NoteRepository {
+    private final Map<Long, Entry> notes = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> ids = new ConcurrentSkipListSet<>();
+    private final Map<String, NavigableSet<Long>> idsByAuthor = new ConcurrentHashMap<>();
+    private final NoteSearchIndex searchIndex = new NoteSearchIndex();
+    private final AtomicLong idCounter = new AtomicLong(1);
+
+    // notatka + tytuł do wyszukiwania, policzony przy zapisie, + jej komentarze
+    private record Entry(Note note, String foldedTitle, NoteComments comments) {
+        Entry(Note note, NoteComments comments) {
+            this(note, note.title() != null ? fold(note.title()) : null, comments);
+        }
+    }
+
+    public NoteRepository() {
+        Note shopping = save(new Note(
+                null,
+                "Shopping list",
+                "Milk, bread, eggs, butter",
+                "Jan"));
+        addComment(shopping.id(), "Comment 1");
+        addComment(shopping.id(), "Comment 2");
+
+        save(new Note(
+                null,
+                "Learning Spring",
+                "Master @RestController and @RequestParam",
+                "Anna"));
+
+        save(new Note(
+                null,
+                "Workout plan",
+                "Monday: chest, Wednesday: back, Friday: legs",
+                "Piotr"));
+    }
+
+    /** Zapisuje nową notatkę pod kolejnym id (id z argumentu jest pomijane). */
+    public Note save(Note note) {
+        return insert(idCounter.getAndIncrement(), note);
+    }
+
+    /**
+     * Zapisuje notatki pod kolejnymi id, w kolejności listy. Id rezerwujemy jednym
+     * {@code getAndAdd}, więc równoległe zapisy nie wcinają się w środek partii.
+     */
+    public List<Note> saveAll(List<Note> newNotes) {
+        long firstId = idCounter.getAndAdd(newNotes.size());
+        List<Note> saved = new ArrayList<>(newNotes.size());
+        for (int i = 0; i < newNotes.size(); i++) {
+            saved.add(insert(firstId + i, newNotes.get(i)));
+        }
+        return saved;
+    }
+
+    public Optional<Note> findById(Long id) {
+        return Optional.ofNullable(notes.get(id)).map(Entry::note);
+    }
+
+    /**
+     * Podmienia notatkę na wynik {@code change} atomowo: równoległa zmiana tej samej notatki
+     * czeka, więc żadna nie zostanie nadpisana starą wersją. Puste, gdy notatki nie ma.
+     */
+    public Optional<Note> update(Long id, UnaryOperator<Note> change) {
+        Entry updated = notes.computeIfPresent(id, (key, existing) -> {
+            Note next = change.apply(existing.note());
+            Note newNote = new Note(id, next.title(), next.content(), next.author());
+            // id zostaje w indeksie kolejności, zmienia się najwyżej autor i słowa
+            if (!Objects.equals(existing.note().author(), newNote.author())) {
+                unindexAuthor(existing.note());
+                indexAuthor(newNote);
+            }
+            if (!Objects.equals(existing.note().title(), newNote.title())
+                    || !Objects.equals(existing.note().content(), newNote.content())) {
+                searchIndex.remove(id, existing.note().title(), existing.note().content());
+                searchIndex.add(id, newNote.title(), newNote.content());
+            }
+            return new Entry(newNote, existing.comments());
+        });
+        return Optional.ofNullable(updated).map(Entry::note);
+    }
+
+    /** Usuwa notatkę; {@code false}, gdy jej nie było. */
+    public boolean delete(Long id) {
+        boolean[] removed = { false };
+        notes.computeIfPresent(id, (key, existing) -> {
+            unindex(existing.note());
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Notatki w kolejności id, leniwie: opcjonalnie tylko danego autora, z tytułem
+     * zawierającym {@code search} (bez rozróżniania wielkości liter) i o id większym niż
+     * {@code afterId}. Strumień czyta indeks dopiero przy pobieraniu elementów, więc
+     * {@code limit(n)} kończy pracę po n dopasowaniach.
+     */
+    public Stream<Note> find(String author, String search, Long afterId) {
+        NavigableSet<Long> source = author == null
+                ? ids
+                : idsByAuthor.getOrDefault(authorKey(author), Collections.emptyNavigableSet());
+        if (afterId != null) {
+            source = source.tailSet(afterId, false);
+        }
+        String needle = search != null ? fold(search) : null;
+        // notatkę usuniętą (albo zmienioną) między odczytem indeksu a mapy po prostu pomijamy
+        return source.stream()
+                .map(notes::get)
+                .filter(Objects::nonNull)
+                .filter(entry -> author == null || authorKey(author).equals(authorKey(entry.note().author())))
+                .filter(entry -> needle == null || entry.foldedTitle() != null && entry.foldedTitle().contains(needle))
+                .map(Entry::note);
+    }
+
+    /**
+     * Notatki, których tytuł lub treść zawiera słowa zapytania (wszystkie albo dowolne,
+     * zależnie od {@code mode}), od najtrafniejszej według BM25; najwyżej {@code limit}.
+     */
+    public List<Note> search(String query, SearchMode mode, int limit) {
+        // notatkę usuniętą po odczycie indeksu pomijamy, jak w find
+        return searchIndex.search(query, mode, limit).stream()
+                .map(hit -> notes.get(hit.id()))
+                .filter(Objects::nonNull)
+                .map(Entry::note)
+                .toList();
+    }
+
+    /**
+     * Dopisuje komentarz z kolejnym id tej notatki. Puste, gdy notatki nie ma. Komentarz
+     * dodany w chwili usuwania notatki znika razem z nią.
+     */
+    public Optional<Comment> addComment(Long noteId, String text) {
+        return Optional.ofNullable(notes.get(noteId)).map(entry -> entry.comments().add(text));
+    }
+
+    public Optional<Comment> findComment(Long noteId, Long commentId) {
+        return Optional.ofNullable(notes.get(noteId)).flatMap(entry -> entry.comments().find(commentId));
+    }
+
+    /**
+     * Komentarze notatki w kolejności id, leniwie, o id większym niż {@code afterId}; pusty
+     * strumień, gdy notatki nie ma.
+     */
+    public Stream<Comment> findComments(Long noteId, Long afterId) {
+        Entry entry = notes.get(noteId);
+        return entry != null ? entry.comments().after(afterId) : Stream.empty();
+    }
+
+    public int count() {
+        return notes.size();
+    }
+
+    private Note insert(long id, Note note) {
+        Note newNote = new Note(id, note.title(), note.content(), note.author());
+        notes.compute(id, (key, existing) -> {
+            index(newNote);
+            return new Entry(newNote, new NoteComments());
+        });
+        return newNote;
+    }
+
+    private void index(Note note) {
+        ids.add(note.id());
+        indexAuthor(note);
+        searchIndex.add(note.id(), note.title(), note.content());
+    }
+
+    private void unindex(Note note) {
+        ids.remove(note.id());
+        unindexAuthor(note);
+        searchIndex.remove(note.id(), note.title(), note.content());
+    }
+
+    // dodanie też w compute, żeby nie trafić do zbioru, który równoległe usunięcie właśnie wyrzuca
+    private void indexAuthor(Note note) {
+        if (note.author() != null) {
+            idsByAuthor.compute(authorKey(note.author()), (key, authorIds) -> {
+                NavigableSet<Long> result = authorIds != null ? authorIds : new ConcurrentSkipListSet<>();
+                result.add(note.id());
+                return result;
+            });
+        }
+    }
+
+    private void unindexAuthor(Note note) {
+        if (note.author() != null) {
+            idsByAuthor.computeIfPresent(authorKey(note.author()), (key, authorIds) -> {
+                authorIds.remove(note.id());
+                return authorIds.isEmpty() ? null : authorIds;
+            });
+        }
+    }
+
+    private static String authorKey(String author) {
+        return author != null ? fold(author) : null;
+    }
+
+    private static String fold(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.ex04;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Odwrócony indeks słów z tytułu i treści notatek z rankingiem BM25.
+ * <p>
+ * Dla każdego słowa trzymamy listę wystąpień: id notatki -> ile razy słowo w niej jest i
+ * jak długa (w słowach) jest cała notatka, więc liczenie punktów nie sięga do innych map.
+ * Zapytanie czyta tylko listy słów z zapytania, więc koszt zależy od tego, jak często te
+ * słowa występują, a nie od liczby notatek. Przy AND przechodzimy najkrótszą listę
+ * i sprawdzamy pozostałe przez {@code get}; przy OR przechodzimy wszystkie, licząc każdą
+ * notatkę raz. Najlepsze wyniki zbiera kopiec o rozmiarze {@code limit}, bez sortowania
+ * wszystkich dopasowań.
+ * <p>
+ * Indeks zmienia się przyrostowo - {@link NoteRepository} woła {@link #add} i
+ * {@link #remove} wewnątrz {@code compute} na id notatki, więc zmiany jednej notatki są
+ * szeregowane. Zapytanie w trakcie zapisu może policzyć punkty z lekko nieaktualnych
+ * statystyk (liczba notatek, średnia długość), co nie psuje wyników.
+ */
+class NoteSearchIndex {
+    // typowe wartości BM25: nasycenie częstości słowa i wpływ długości notatki
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Long, Posting>> postings = new ConcurrentHashMap<>();
+    private final AtomicLong documents = new AtomicLong();
+    private final AtomicLong totalLength = new AtomicLong();
+
+    private record Posting(int frequency, int length) {
+    }
+
+    record Hit(long id, double score) {
+    }
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingLong(Hit::id);
+
+    void add(long id, String title, String content) {
+        Map<String, Integer> frequencies = frequencies(title, content);
+        int length = length(frequencies);
+        for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+            Posting posting = new Posting(term.getValue(), length);
+            // w compute, żeby nie dopisać się do listy, którą równoległe usunięcie właśnie wyrzuca
+            postings.compute(term.getKey(), (key, ids) -> {
+                Map<Long, Posting> result = ids != null ? ids : new ConcurrentHashMap<>();
+                result.put(id, posting);
+                return result;
+            });
+        }
+        documents.incrementAndGet();
+        totalLength.addAndGet(length);
+    }
+
+    /** Usuwa notatkę; tytuł i treść muszą być te, z którymi ją dodano. */
+    void remove(long id, String title, String content) {
+        Map<String, Integer> frequencies = frequencies(title, content);
+        for (String term : frequencies.keySet()) {
+            postings.computeIfPresent(term, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        documents.decrementAndGet();
+        totalLength.addAndGet(-length(frequencies));
+    }
+
+    /** Id notatek pasujących do zapytania, od najlepiej ocenionej; remisy rozstrzyga mniejsze id. */
+    List<Hit> search(String query, SearchMode mode, int limit) {
+        List<Map<Long, Posting>> lists = new ArrayList<>();
+        for (String term : tokens(query)) {
+            Map<Long, Posting> ids = postings.get(term);
+            if (ids != null) {
+                lists.add(ids);
+            } else if (mode == SearchMode.AND) {
+                return List.of();
+            }
+        }
+        if (lists.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        long documents = Math.max(this.documents.get(), 1);
+        double averageLength = Math.max((double) totalLength.get() / documents, 1);
+        // najkrótsza lista pierwsza: przy AND to ona wyznacza kandydatów, pozostałe ich potwierdzają
+        lists.sort(Comparator.comparingInt(Map::size));
+        double[] idf = idfs(lists, documents);
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(limit, 1024) + 1, RANKING.reversed());
+        if (mode == SearchMode.AND) {
+            scoreCandidates(lists, 0, idf, averageLength, true, best, limit);
+        } else {
+            // id z kilku list liczymy raz - na pierwszej, na której wystąpi
+            for (int i = 0; i < lists.size(); i++) {
+                scoreCandidates(lists, i, idf, averageLength, false, best, limit);
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    /*
+     * Punktuje notatki z listy source, sprawdzając pozostałe listy przez get. Przy AND każda
+     * musi zawierać notatkę; przy OR pomijamy notatki z wcześniejszych list (już policzone).
+     */
+    private static void scoreCandidates(List<Map<Long, Posting>> lists, int source, double[] idf,
+            double averageLength, boolean all, PriorityQueue<Hit> best, int limit) {
+        candidates:
+        for (Map.Entry<Long, Posting> candidate : lists.get(source).entrySet()) {
+            long id = candidate.getKey();
+            double score = score(idf[source], candidate.getValue(), averageLength);
+            for (int i = 0; i < lists.size(); i++) {
+                if (i == source) {
+                    continue;
+                }
+                Posting posting = lists.get(i).get(id);
+                if (posting == null) {
+                    if (all) {
+                        continue candidates;
+                    }
+                } else if (!all && i < source) {
+                    continue candidates;
+                } else {
+                    score += score(idf[i], posting, averageLength);
+                }
+            }
+            offer(best, id, score, limit);
+        }
+    }
+
+    private static double[] idfs(List<Map<Long, Posting>> lists, long documents) {
+        double[] idf = new double[lists.size()];
+        for (int i = 0; i < idf.length; i++) {
+            int frequency = lists.get(i).size();
+            idf[i] = Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5));
+        }
+        return idf;
+    }
+
+    private static double score(double idf, Posting posting, double averageLength) {
+        int frequency = posting.frequency();
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * posting.length() / averageLength));
+    }
+
+    // kopiec trzyma najgorszy z najlepszych na górze, więc wypada on, gdy przyjdzie lepszy;
+    // słabszych od niego nawet nie tworzymy
+    private static void offer(PriorityQueue<Hit> best, long id, double score, int limit) {
+        if (best.size() == limit) {
+            Hit worst = best.peek();
+            if (score < worst.score() || score == worst.score() && id > worst.id()) {
+                return;
+            }
+        }
+        best.offer(new Hit(id, score));
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    private static Map<String, Integer> frequencies(String title, String content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String text : new String[] { title, content }) {
+            tokenize(text, term -> frequencies.merge(term, 1, Integer::sum));
+        }
+        return frequencies;
+    }
+
+    private static int length(Map<String, Integer> frequencies) {
+        int length = 0;
+        for (int frequency : frequencies.values()) {
+            length += frequency;
+        }
+        return length;
+    }
+
+    /** Różne słowa zapytania w kolejności wystąpienia. */
+    private static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        tokenize(text, tokens::add);
+        return tokens;
+    }
+
+    // słowo = ciąg liter i cyfr, małymi literami; reszta to separatory
+    private static void tokenize(String text, Consumer<String> sink) {
+        if (text == null) {
+            return;
+        }
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                term.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (!term.isEmpty()) {
+                sink.accept(term.toString());
+                term.setLength(0);
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (!term.isEmpty()) {
+            sink.accept(term.toString());
+        }
+    }
+}
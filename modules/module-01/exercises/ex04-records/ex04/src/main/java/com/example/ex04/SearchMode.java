@@ -0,0 +1,9 @@
+package com.example.ex04;
+
+/** Jak łączyć słowa zapytania pełnotekstowego. */
+public enum SearchMode {
+    /** Notatka musi zawierać wszystkie słowa. */
+    AND,
+    /** Wystarczy dowolne słowo; więcej trafionych słów = wyżej w wynikach. */
+    OR
+}
@@ -0,0 +1,4 @@
+package com.example.ex04.comment;
+
+public record CreateCommentRequest(String text) {
+}
@@ -0,0 +1,7 @@
+package com.example.ex04.note;
+
+import java.util.List;
+
+public record CreateNotesResponse(
+        List<Long> ids) {
+}
@@ -0,0 +1,183 @@
+package com.example.ex04;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class NoteRepositoryTests {
+
+	private final NoteRepository repository = new NoteRepository();
+
+	@Test
+	void findsByIdAndAuthorInIdOrder() {
+		Note saved = repository.save(new Note(null, "Second list", "Jam", "JAN"));
+
+		assertThat(repository.findById(saved.id())).contains(saved);
+		assertThat(repository.find("jan", null, null).map(Note::id)).containsExactly(1L, saved.id());
+		assertThat(repository.find(null, null, null).map(Note::id)).containsExactly(1L, 2L, 3L, saved.id());
+		assertThat(repository.find("nobody", null, null)).isEmpty();
+	}
+
+	@Test
+	void saveAllAssignsConsecutiveIdsInRequestOrder() {
+		List<Note> saved = repository.saveAll(List.of(
+				new Note(null, "First", "Bulk note", "Ola"),
+				new Note(99L, "Second", "Bulk note", "Ola")));
+
+		assertThat(saved).extracting(Note::id).containsExactly(4L, 5L);
+		assertThat(repository.find("ola", null, null)).extracting(Note::title).containsExactly("First", "Second");
+		assertThat(repository.search("bulk", SearchMode.AND, 10)).hasSize(2);
+		assertThat(repository.save(new Note(null, "Third", "", "Ola")).id()).isEqualTo(6L);
+	}
+
+	@Test
+	void updateAndDeleteKeepIndexesInStep() {
+		repository.update(2L, note -> new Note(null, "Learning Boot", note.content(), "Jan"));
+
+		assertThat(repository.find("anna", null, null)).isEmpty();
+		assertThat(repository.find("jan", null, null).map(Note::title)).containsExactly("Shopping list", "Learning Boot");
+		assertThat(repository.delete(1L)).isTrue();
+		assertThat(repository.delete(1L)).isFalse();
+		assertThat(repository.update(1L, note -> note)).isEmpty();
+		assertThat(repository.find("jan", null, null).map(Note::id)).containsExactly(2L);
+	}
+
+	@Test
+	void findResumesAfterTheCursorAndMatchesTitlesIgnoringCase() {
+		for (int i = 0; i < 30; i++) {
+			repository.save(new Note(null, (i % 3 == 0 ? "TODO " : "Idea ") + i, "", "Jan"));
+		}
+
+		List<Note> first = repository.find("jan", "todo", null).limit(4).toList();
+		assertThat(first).extracting(Note::title).containsExactly("TODO 0", "TODO 3", "TODO 6", "TODO 9");
+		List<Note> second = repository.find("jan", "todo", first.getLast().id()).limit(4).toList();
+		assertThat(second).extracting(Note::title).containsExactly("TODO 12", "TODO 15", "TODO 18", "TODO 21");
+
+		repository.update(first.get(1).id(), note -> new Note(null, "done", note.content(), note.author()));
+		assertThat(repository.find(null, "todo 3", null)).isEmpty();
+		assertThat(repository.find(null, "DONE", null)).extracting(Note::id).containsExactly(first.get(1).id());
+	}
+
+	@Test
+	void searchRanksTitleAndContentWordsAndFollowsWrites() {
+		Note spring = repository.save(new Note(null, "Spring notes", "Spring Boot, Spring MVC and Spring Data", "Jan"));
+		Note boot = repository.save(new Note(null, "Boot camp", "Running shoes", "Anna"));
+
+		// "Learning Spring" mentions spring once, the new note four times
+		assertThat(repository.search("SPRING", SearchMode.AND, 10)).extracting(Note::id)
+				.containsExactly(spring.id(), 2L);
+		assertThat(repository.search("spring boot", SearchMode.AND, 10)).extracting(Note::id)
+				.containsExactly(spring.id());
+		assertThat(repository.search("spring boot", SearchMode.OR, 10)).extracting(Note::id)
+				.containsExactly(spring.id(), boot.id(), 2L);
+		assertThat(repository.search("spring boot", SearchMode.OR, 1)).extracting(Note::id)
+				.containsExactly(spring.id());
+		assertThat(repository.search("eggs, butter!", SearchMode.AND, 10)).extracting(Note::id).containsExactly(1L);
+		assertThat(repository.search("spring nothing", SearchMode.AND, 10)).isEmpty();
+		assertThat(repository.search("  ", SearchMode.OR, 10)).isEmpty();
+
+		repository.update(spring.id(), note -> new Note(null, "Kotlin notes", "Ktor", note.author()));
+		repository.delete(boot.id());
+		assertThat(repository.search("spring boot", SearchMode.OR, 10)).extracting(Note::id).containsExactly(2L);
+		assertThat(repository.search("ktor", SearchMode.AND, 10)).extracting(Note::id).containsExactly(spring.id());
+		assertThat(repository.search("running", SearchMode.OR, 10)).isEmpty();
+	}
+
+	@Test
+	void commentsAreFoundByIdPagedAndSurviveNoteUpdates() {
+		assertThat(repository.findComment(1L, 2L)).contains(new Comment(2L, "Comment 2"));
+		assertThat(repository.findComment(1L, 3L)).isEmpty();
+		assertThat(repository.findComment(42L, 1L)).isEmpty();
+		assertThat(repository.addComment(42L, "lost")).isEmpty();
+
+		assertThat(repository.addComment(2L, "First").orElseThrow().id()).isEqualTo(1L);
+		for (int i = 2; i <= 25; i++) {
+			repository.addComment(2L, "Comment " + i);
+		}
+		repository.update(2L, note -> new Note(null, "Learning Boot", note.content(), note.author()));
+
+		assertThat(repository.findComments(2L, null).limit(3)).extracting(Comment::id).containsExactly(1L, 2L, 3L);
+		assertThat(repository.findComments(2L, 23L)).extracting(Comment::text).containsExactly("Comment 24",
+				"Comment 25");
+		assertThat(repository.findComments(3L, null)).isEmpty();
+
+		repository.delete(2L);
+		assertThat(repository.findComment(2L, 1L)).isEmpty();
+		assertThat(repository.findComments(2L, null)).isEmpty();
+	}
+
+	@Test
+	void concurrentCommentsOnOneNoteAreAllKept() throws Exception {
+		int threads = 8;
+		int perThread = 2000;
+		CountDownLatch start = new CountDownLatch(1);
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < perThread; i++) {
+						repository.addComment(3L, "Comment " + i);
+						// note edits alongside must not drop comments
+						repository.update(3L, old -> new Note(null, old.title(), old.content() + ".", old.author()));
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+
+		assertThat(repository.findComments(3L, null)).extracting(Comment::id).hasSize(threads * perThread)
+				.isSorted().doesNotHaveDuplicates();
+	}
+
+	@Test
+	void concurrentCreateUpdateDeleteKeepsStoreConsistent() throws Exception {
+		int threads = 8;
+		int perThread = 2000;
+		CountDownLatch start = new CountDownLatch(1);
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				String author = "author-" + t;
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < perThread; i++) {
+						Note note = repository.save(new Note(null, "Note " + i, "", author));
+						repository.update(note.id(), old -> new Note(null, old.title() + "!", old.content(),
+								old.author()));
+						// shared note updated by every thread at once
+						repository.update(2L, old -> new Note(null, old.title(), old.content() + ".", old.author()));
+						if (i % 2 == 0) {
+							repository.delete(note.id());
+						}
+						// readers run alongside the writers
+						repository.find(null, null, null).limit(50).toList();
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+
+		assertThat(repository.count()).isEqualTo(3 + threads * perThread / 2);
+		assertThat(repository.find(null, null, null)).hasSize(repository.count());
+		assertThat(repository.find("author-3", null, null)).hasSize(perThread / 2)
+				.allSatisfy(note -> assertThat(note.title()).endsWith("!"));
+		assertThat(repository.findById(2L).orElseThrow().content()).endsWith(".".repeat(threads * perThread));
+		assertThat(repository.search("note", SearchMode.AND, Integer.MAX_VALUE)).hasSize(threads * perThread / 2);
+	}
+}
@@ -0,0 +1,22 @@
+#!/usr/bin/env bash
+# Compares two JMH JSON result files (-rf json) benchmark by benchmark.
+# Usage: benchmarks/compare.sh benchmarks/baseline.json target/jmh-result.json
+set -euo pipefail
+
+baseline=${1:?baseline json}
+current=${2:?current json}
+
+jq -rn --slurpfile base "$baseline" --slurpfile cur "$current" '
+  def key: .benchmark + "(" + ((.params // {}) | to_entries | map(.key + "=" + .value) | join(",")) + ")";
+  def scores($runs): reduce $runs[] as $r ({}; .[$r | key] = $r.primaryMetric);
+  (scores($base[0])) as $b
+  | (scores($cur[0])) as $c
+  | ["benchmark", "baseline", "current", "unit", "change"],
+    ($c | keys[] as $k
+      | [$k,
+         ($b[$k].score // null | if . == null then "-" else (. * 1000 | round / 1000 | tostring) end),
+         ($c[$k].score * 1000 | round / 1000 | tostring),
+         $c[$k].scoreUnit,
+         (if $b[$k] == null then "new"
+          else ((($c[$k].score - $b[$k].score) / $b[$k].score * 100) * 10 | round / 10 | tostring) + "%" end)])
+  | @tsv' | awk -F'\t' '{ printf "%-80s %14s %14s %6s %8s\n", $1, $2, $3, $4, $5 }'
@@ -0,0 +1,78 @@
+package com.sp94dev.wallet.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sp94dev.wallet.transaction.AggregateTable;
+import com.sp94dev.wallet.transaction.ColumnarTransactionRepository;
+import com.sp94dev.wallet.transaction.GroupBy;
+import com.sp94dev.wallet.transaction.InMemoryTransactionRepository;
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionRepository;
+
+/**
+ * Ad-hoc group-by over the whole store: the fork-join engine ({@code repository.aggregate})
+ * against the original style of two sequential {@code groupingBy} passes over {@code findAll()}
+ * with boxed keys and values. Parallelism is the common pool's; for a scaling curve rerun with
+ * {@code -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=N}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class AggregationBenchmark {
+
+    @Param({ "1000000", "10000000" })
+    int size;
+
+    @Param({ "map", "columnar" })
+    String store;
+
+    @Param({ "INSTRUMENT", "MONTH" })
+    GroupBy groupBy;
+
+    private TransactionRepository repository;
+    private Function<Transaction, Object> key;
+
+    @Setup
+    public void setUp() {
+        repository = "columnar".equals(store)
+                ? new ColumnarTransactionRepository()
+                : new InMemoryTransactionRepository();
+        BenchmarkData.fill(repository, size);
+        key = groupBy == GroupBy.MONTH
+                ? t -> t.date().withDayOfMonth(1)
+                : Transaction::instrumentId;
+    }
+
+    @Benchmark
+    public AggregateTable forkJoin() {
+        return repository.aggregate(groupBy, null, null);
+    }
+
+    @Benchmark
+    public Map<Object, Double> sequentialGroupingBy() {
+        List<Transaction> all = repository.findAll();
+        Map<Object, Long> counts = all.stream().collect(Collectors.groupingBy(key, Collectors.counting()));
+        Map<Object, Double> values = all.stream().collect(
+                Collectors.groupingBy(key, Collectors.summingDouble(t -> t.price() * t.quantity())));
+        return counts.size() == values.size() ? values : Map.of();
+    }
+}
@@ -0,0 +1,52 @@
+package com.sp94dev.wallet.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.sp94dev.wallet.instrument.Instrument;
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionRepository;
+import com.sp94dev.wallet.transaction.TransactionType;
+
+/** Deterministic datasets shared by the benchmarks. */
+final class BenchmarkData {
+    static final int INSTRUMENTS = 500;
+
+    private static final String[] TYPES = { "STOCK", "ETF", "BOND", "CRYPTO" };
+    private static final String[] CURRENCIES = { "USD", "EUR", "PLN", "GBP", "CHF" };
+    private static final String[] MARKETS = { "NASDAQ", "NYSE", "XETRA", "WSE", "LSE", "SIX", "EURONEXT", "TSX" };
+    private static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+
+    private BenchmarkData() {
+    }
+
+    static Instrument instrument(int i) {
+        return new Instrument(
+                null,
+                "TK" + Integer.toString(i, 36).toUpperCase(),
+                CURRENCIES[i % CURRENCIES.length],
+                MARKETS[(i / 3) % MARKETS.length],
+                TYPES[(i / 7) % TYPES.length]);
+    }
+
+    static void fill(TransactionRepository repository, int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        int batchSize = 100_000;
+        for (int start = 0; start < size; start += batchSize) {
+            int count = Math.min(batchSize, size - start);
+            List<Transaction> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                batch.add(new Transaction(
+                        null,
+                        (long) random.nextInt(1, INSTRUMENTS + 1),
+                        random.nextInt(4) == 0 ? TransactionType.SELL : TransactionType.BUY,
+                        (double) random.nextInt(1, 100),
+                        random.nextDouble(10, 500),
+                        FIRST_DAY.plusDays(random.nextInt(3650))));
+            }
+            repository.saveAll(batch);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.sp94dev.wallet.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.sp94dev.wallet.portfolio.PortfolioService;
+import com.sp94dev.wallet.transaction.ColumnarTransactionRepository;
+import com.sp94dev.wallet.transaction.DurableTransactionRepository;
+import com.sp94dev.wallet.transaction.InMemoryTransactionRepository;
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionIngestPipeline;
+import com.sp94dev.wallet.transaction.TransactionIngestProperties;
+import com.sp94dev.wallet.transaction.TransactionLogProperties;
+import com.sp94dev.wallet.transaction.TransactionRepository;
+import com.sp94dev.wallet.transaction.TransactionService;
+import com.sp94dev.wallet.transaction.TransactionType;
+
+/**
+ * Cost per created transaction: {@code createSync} is the request path of
+ * {@code POST /api/transactions} (store, stats and portfolio per call); {@code ingest} hands
+ * the same transaction to the write-behind pipeline and, when the buffer is full, retries
+ * like a client answered with 429. The ingest time therefore includes the writer catching
+ * up, i.e. it is the sustained rate of batched writes, not just the enqueue. With the
+ * {@code durable} store (fsync on) that is where batching pays: one sync per batch instead of
+ * one per transaction. Each iteration starts from an empty store; the pipeline is drained at
+ * the end of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class IngestBenchmark {
+
+    @Param({ "map", "columnar", "durable" })
+    String store;
+
+    private TransactionRepository repository;
+    private Path logDirectory;
+    private TransactionService service;
+    private TransactionIngestPipeline pipeline;
+    private final List<Transaction> one = List.of(
+            new Transaction(null, 1L, TransactionType.BUY, 1.0, 10.0, LocalDate.of(2024, 1, 2)));
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        repository = switch (store) {
+            case "columnar" -> new ColumnarTransactionRepository();
+            case "durable" -> {
+                logDirectory = Files.createTempDirectory("ingest-benchmark");
+                yield new DurableTransactionRepository(new TransactionLogProperties(logDirectory.toString(),
+                        DataSize.ofMegabytes(64), true, Duration.ofHours(1)));
+            }
+            default -> new InMemoryTransactionRepository();
+        };
+        service = new TransactionService(repository, new PortfolioService(repository, null, null), null);
+        pipeline = new TransactionIngestPipeline(service, new TransactionIngestProperties(true, 65536, 1024, 3, Duration.ofMillis(100), 65536));
+        pipeline.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        pipeline.stop();
+        if (repository instanceof DurableTransactionRepository durable) {
+            durable.close();
+            FileSystemUtils.deleteRecursively(logDirectory);
+        }
+    }
+
+    @Benchmark
+    public Transaction createSync() {
+        return service.create(one.getFirst());
+    }
+
+    @Benchmark
+    public long ingest() {
+        long sequence;
+        while ((sequence = pipeline.offer(one)) < 0) {
+            Thread.onSpinWait();
+        }
+        return sequence;
+    }
+}
@@ -0,0 +1,170 @@
+package com.sp94dev.wallet.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import com.sp94dev.wallet.instrument.InMemoryInstrumentRepository;
+import com.sp94dev.wallet.instrument.Instrument;
+import com.sp94dev.wallet.instrument.InstrumentCacheProperties;
+import com.sp94dev.wallet.instrument.InstrumentResponseCache;
+import com.sp94dev.wallet.instrument.InstrumentService;
+import com.sp94dev.wallet.instrument.dto.InstrumentResponse;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Instrument read paths. The {@code *StreamScan} methods replay the original
+ * {@code findByCriteria} stream pipeline over the same data as the indexed version;
+ * {@code findAllCopy} is the original {@code findAll}, a fresh copy of the map values per call.
+ * {@code top20Json*} compare the response body of a list query served from
+ * {@link InstrumentResponseCache} with running the query and serializing it per request.
+ * {@code search*} are autocomplete queries against the ticker search index ({@code "tk1a"}
+ * is a prefix, {@code "1az"} only occurs inside tickers); {@code searchStreamScan} is the
+ * same substring query done with the original lower-case-and-contains filter plus a sort.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class InstrumentBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    int size;
+
+    private InMemoryInstrumentRepository repository;
+    private InstrumentService service;
+    private List<Instrument> rows;
+    private List<Instrument> page;
+    private Map<Long, Instrument> storage;
+    private JsonMapper jsonMapper;
+    private InstrumentResponseCache responseCache;
+
+    @Setup
+    public void setUp() {
+        repository = new InMemoryInstrumentRepository();
+        service = new InstrumentService(repository);
+        List<Instrument> instruments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            instruments.add(BenchmarkData.instrument(i));
+        }
+        // one version bump for the whole load
+        repository.saveAll(instruments);
+        rows = repository.findAll();
+        storage = new ConcurrentHashMap<>();
+        rows.forEach(instrument -> storage.put(instrument.id(), instrument));
+        jsonMapper = JsonMapper.builder().build();
+        responseCache = new InstrumentResponseCache(repository, jsonMapper,
+                new InstrumentCacheProperties(DataSize.ofMegabytes(16), Duration.ZERO));
+        page = rows.subList(0, Math.min(100, rows.size()));
+    }
+
+    @Benchmark
+    public List<Instrument> findByCriteriaIndexed() {
+        return repository.findByCriteria("ETF", "EUR", null, "XETRA");
+    }
+
+    @Benchmark
+    public List<Instrument> findByCriteriaStreamScan() {
+        return streamScan("ETF", "EUR", null, "XETRA");
+    }
+
+    @Benchmark
+    public List<Instrument> findByTickerIndexed() {
+        return repository.findByCriteria(null, null, "k7", null);
+    }
+
+    @Benchmark
+    public List<Instrument> findByTickerStreamScan() {
+        return streamScan(null, null, "k7", null);
+    }
+
+    @Benchmark
+    public List<Instrument> searchPrefix() {
+        return repository.search("tk1a", 10);
+    }
+
+    @Benchmark
+    public List<Instrument> searchSubstring() {
+        return repository.search("1az", 10);
+    }
+
+    @Benchmark
+    public List<Instrument> searchStreamScan() {
+        return rows.stream()
+                .filter(instrument -> instrument.ticker().toLowerCase().contains("1az"))
+                .sorted(Comparator.comparing(Instrument::ticker))
+                .limit(10)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Instrument> getAllInstrumentsTop20() {
+        return service.getAllInstruments("STOCK", null, null, null, "ticker", 20);
+    }
+
+    @Benchmark
+    public List<Instrument> getAllInstrumentsByTickerTop20() {
+        return service.getAllInstruments(null, null, null, null, "ticker", 20);
+    }
+
+    @Benchmark
+    public List<Instrument> findAllSnapshot() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<Instrument> findAllCopy() {
+        return List.copyOf(storage.values());
+    }
+
+    @Benchmark
+    public byte[] top20JsonCached() {
+        return responseCache.getList("STOCK", null, null, null, "ticker", 20, this::top20).body();
+    }
+
+    @Benchmark
+    public byte[] top20JsonSerialized() {
+        return jsonMapper.writeValueAsBytes(top20());
+    }
+
+    private List<InstrumentResponse> top20() {
+        return service.getAllInstruments("STOCK", null, null, null, "ticker", 20).stream()
+                .map(InstrumentResponse::from)
+                .toList();
+    }
+
+    @Benchmark
+    public List<InstrumentResponse> mapPageToResponse() {
+        return page.stream().map(InstrumentResponse::from).toList();
+    }
+
+    private List<Instrument> streamScan(String type, String currency, String ticker, String market) {
+        return rows.stream()
+                .filter(instrument -> type == null || instrument.type().equals(type))
+                .filter(instrument -> currency == null || instrument.currency().equals(currency))
+                .filter(instrument -> ticker == null
+                        || instrument.ticker().toLowerCase().contains(ticker.toLowerCase()))
+                .filter(instrument -> market == null || instrument.market().equals(market))
+                .toList();
+    }
+}
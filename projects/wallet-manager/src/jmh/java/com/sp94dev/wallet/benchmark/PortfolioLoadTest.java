@@ -0,0 +1,165 @@
+package com.sp94dev.wallet.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import com.sp94dev.wallet.WalletApplication;
+import com.sp94dev.wallet.price.Price;
+import com.sp94dev.wallet.price.PriceSource;
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionService;
+import com.sp94dev.wallet.transaction.TransactionType;
+
+/**
+ * Closed-loop HTTP load test of {@code GET /api/portfolio} with platform vs. virtual threads
+ * ({@code spring.threads.virtual.enabled}). The price source is replaced by one that blocks
+ * for a fixed latency and the price cache TTL is zero, so every request waits on I/O the way
+ * it would against a remote provider. Not a JMH benchmark; run it with
+ * {@code -Djmh.main=com.sp94dev.wallet.benchmark.PortfolioLoadTest -Djmh.args="10000 20 20"}
+ * (clients, seconds per mode, price latency in ms). Clients are virtual threads in the same
+ * JVM, each holding one keep-alive connection.
+ */
+public class PortfolioLoadTest {
+    private static final int POSITIONS = 5;
+
+    static long priceLatencyMillis;
+
+    static class SlowPrices {
+        @Bean
+        @Primary
+        PriceSource slowPriceSource() {
+            return instrument -> {
+                try {
+                    Thread.sleep(priceLatencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Optional.of(new Price(instrument.id(), 100.0, Instant.now()));
+            };
+        }
+    }
+
+    private record Result(String mode, long requests, long errors, double seconds, long[] latenciesNanos) {
+        double throughput() {
+            return requests / seconds;
+        }
+
+        double percentileMillis(double percentile) {
+            if (latenciesNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        priceLatencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 20;
+        // devtools is on the runtime classpath and would restart main() in another class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[] { false, true }) {
+            results.add(run(virtual, clients, seconds));
+        }
+        System.out.printf("%n%d clients, %d s per mode, %d ms price latency, %d positions%n",
+                clients, seconds, priceLatencyMillis, POSITIONS);
+        System.out.printf("%-9s %12s %8s %10s %10s %10s%n", "mode", "req/s", "errors", "p50 ms", "p99 ms", "max ms");
+        for (Result result : results) {
+            System.out.printf("%-9s %12.1f %8d %10.1f %10.1f %10.1f%n", result.mode(), result.throughput(),
+                    result.errors(), result.percentileMillis(50), result.percentileMillis(99),
+                    result.percentileMillis(100));
+        }
+    }
+
+    private static Result run(boolean virtual, int clients, int seconds) throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WalletApplication.class,
+                SlowPrices.class)
+                // command-line arguments, so they win over application.properties
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--wallet.prices.cache-ttl=0s",
+                        "--server.tomcat.max-connections=" + (clients + 1000),
+                        "--server.tomcat.accept-count=" + clients,
+                        "--logging.level.root=WARN")) {
+            seed(context.getBean(TransactionService.class));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/portfolio");
+
+            LongAdder errors = new LongAdder();
+            List<long[]> perClient = new ArrayList<>(clients);
+            long started = System.nanoTime();
+            long deadline = started + Duration.ofSeconds(seconds).toNanos();
+            try (HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+                    ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build();
+                List<Future<long[]>> futures = new ArrayList<>(clients);
+                for (int i = 0; i < clients; i++) {
+                    futures.add(clientThreads.submit(() -> {
+                        long[] latencies = new long[64];
+                        int count = 0;
+                        while (System.nanoTime() < deadline) {
+                            long sent = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) {
+                                    errors.increment();
+                                    continue;
+                                }
+                            } catch (Exception e) {
+                                errors.increment();
+                                continue;
+                            }
+                            if (count == latencies.length) {
+                                latencies = Arrays.copyOf(latencies, count * 2);
+                            }
+                            latencies[count++] = System.nanoTime() - sent;
+                        }
+                        return Arrays.copyOf(latencies, count);
+                    }));
+                }
+                for (Future<long[]> future : futures) {
+                    perClient.add(future.get());
+                }
+            }
+            double elapsed = (System.nanoTime() - started) / 1e9;
+            long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("%s: %d requests, %d errors%n", mode, all.length, errors.sum());
+            return new Result(mode, all.length, errors.sum(), elapsed, all);
+        }
+    }
+
+    private static void seed(TransactionService transactions) {
+        List<Transaction> buys = new ArrayList<>();
+        for (long instrumentId = 1; instrumentId <= POSITIONS; instrumentId++) {
+            buys.add(new Transaction(null, instrumentId, TransactionType.BUY, 10.0, 90.0, LocalDate.of(2024, 1, 2)));
+        }
+        transactions.createAll(buys);
+    }
+}
@@ -0,0 +1,106 @@
+package com.sp94dev.wallet.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sp94dev.wallet.portfolio.PortfolioService;
+import com.sp94dev.wallet.transaction.BucketInterval;
+import com.sp94dev.wallet.transaction.ColumnarTransactionRepository;
+import com.sp94dev.wallet.transaction.InMemoryTransactionRepository;
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionRepository;
+import com.sp94dev.wallet.transaction.TransactionService;
+import com.sp94dev.wallet.transaction.TransactionType;
+import com.sp94dev.wallet.transaction.dto.TransactionBucket;
+import com.sp94dev.wallet.transaction.dto.TransactionResponse;
+import com.sp94dev.wallet.transaction.dto.TransactionStats;
+
+/**
+ * Transaction read paths for both stores. {@code replayStats} is the original
+ * {@code getStats()} implementation (full copy + two groupingBy passes). The
+ * {@code last30Days*} cases ask for one instrument's last 30 days: through the date index,
+ * the daily buckets, and the {@code findAll()} filter they replace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TransactionBenchmark {
+
+    @Param({ "1000", "1000000", "10000000" })
+    int size;
+
+    @Param({ "map", "columnar" })
+    String store;
+
+    private TransactionRepository repository;
+    private TransactionService service;
+
+    private static final long INSTRUMENT = 1;
+    private static final LocalDate TO = LocalDate.of(2024, 12, 1);
+    private static final LocalDate FROM = TO.minusDays(29);
+
+    @Setup
+    public void setUp() {
+        repository = "columnar".equals(store)
+                ? new ColumnarTransactionRepository()
+                : new InMemoryTransactionRepository();
+        service = new TransactionService(repository, new PortfolioService(repository, null, null), null);
+        BenchmarkData.fill(repository, size);
+    }
+
+    @Benchmark
+    public TransactionStats getStats() {
+        return service.getStats();
+    }
+
+    @Benchmark
+    public TransactionStats replayStats() {
+        List<Transaction> allTransactions = repository.findAll();
+        Map<TransactionType, Long> byType = allTransactions.stream()
+                .collect(Collectors.groupingBy(Transaction::type, Collectors.counting()));
+        Map<Long, Double> valueByInstrument = allTransactions.stream().collect(
+                Collectors.groupingBy(
+                        Transaction::instrumentId, Collectors.summingDouble(t -> t.price() * t.quantity())));
+        return new TransactionStats(allTransactions.size(), byType, valueByInstrument);
+    }
+
+    @Benchmark
+    public List<TransactionResponse> firstPageToResponse() {
+        return service.getPage(null, 1000).stream().map(TransactionResponse::from).toList();
+    }
+
+    @Benchmark
+    public List<Transaction> last30DaysByDate() {
+        return service.getByDate(INSTRUMENT, FROM, TO);
+    }
+
+    @Benchmark
+    public List<TransactionBucket> last30DaysBuckets() {
+        return service.getBuckets(INSTRUMENT, FROM, TO, BucketInterval.DAY);
+    }
+
+    @Benchmark
+    public List<Transaction> last30DaysScan() {
+        return repository.findAll().stream()
+                .filter(t -> t.instrumentId() == INSTRUMENT && !t.date().isBefore(FROM) && !t.date().isAfter(TO))
+                .toList();
+    }
+}
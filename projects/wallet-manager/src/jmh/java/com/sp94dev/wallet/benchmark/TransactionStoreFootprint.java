@@ -0,0 +1,37 @@
+package com.sp94dev.wallet.benchmark;
+
+import java.util.function.Supplier;
+
+import com.sp94dev.wallet.transaction.ColumnarTransactionRepository;
+import com.sp94dev.wallet.transaction.InMemoryTransactionRepository;
+import com.sp94dev.wallet.transaction.TransactionRepository;
+
+/**
+ * Retained heap of each transaction store after loading N rows (default 10M). Not a JMH
+ * benchmark: run it with {@code -Djmh.main=com.sp94dev.wallet.benchmark.TransactionStoreFootprint}.
+ */
+public class TransactionStoreFootprint {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        measure("map", InMemoryTransactionRepository::new, rows);
+        measure("columnar", ColumnarTransactionRepository::new, rows);
+    }
+
+    private static void measure(String name, Supplier<TransactionRepository> store, int rows) {
+        long before = usedHeap();
+        TransactionRepository repository = store.get();
+        BenchmarkData.fill(repository, rows);
+        long after = usedHeap();
+        System.out.printf("%-9s %,d rows: %,d MB retained, %.1f bytes/row%n",
+                name, repository.stats().totalTransactions(), (after - before) >> 20, (double) (after - before) / rows);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
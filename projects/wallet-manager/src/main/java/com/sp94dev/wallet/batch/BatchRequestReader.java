@@ -0,0 +1,39 @@
+package com.sp94dev.wallet.batch;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Reads the body of a batch endpoint: either a JSON array or NDJSON (one value per line),
+ * decoded straight from the request stream without buffering the raw body.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchRequestReader {
+    public static final int MAX_ITEMS = 100_000;
+
+    private final JsonMapper jsonMapper;
+
+    public <T> List<T> read(InputStream body, Class<T> type) {
+        List<T> items = new ArrayList<>();
+        try (MappingIterator<T> values = jsonMapper.readerFor(type).readValues(body)) {
+            while (values.hasNextValue()) {
+                if (items.size() == MAX_ITEMS) {
+                    throw new IllegalArgumentException("Batch exceeds " + MAX_ITEMS + " items");
+                }
+                items.add(values.nextValue());
+            }
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Malformed batch body: " + e.getOriginalMessage(), e);
+        }
+        return items;
+    }
+}
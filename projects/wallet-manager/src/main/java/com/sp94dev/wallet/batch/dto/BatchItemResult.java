@@ -0,0 +1,21 @@
+package com.sp94dev.wallet.batch.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult<T>(
+        @Schema(description = "Position of the item in the request body", example = "0") int index,
+        @Schema(description = "HTTP status the item would have had as a single request", example = "201") int status,
+        @Schema(description = "Resulting entity, absent on failure") T item,
+        @Schema(description = "Why the item was rejected", example = "Unknown id 42") String error) {
+
+    public static <T> BatchItemResult<T> ok(int index, int status, T item) {
+        return new BatchItemResult<>(index, status, item, null);
+    }
+
+    public static <T> BatchItemResult<T> failed(int index, int status, String error) {
+        return new BatchItemResult<>(index, status, null, error);
+    }
+}
@@ -0,0 +1,27 @@
+package com.sp94dev.wallet.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Executor for service-level fan-out (e.g. pricing every position of a portfolio at once).
+ * Follows {@code spring.threads.virtual.enabled}, the same switch that moves Tomcat request
+ * handling onto virtual threads: one virtual thread per task when enabled, otherwise a
+ * fixed pool of {@code wallet.fan-out.pool-size} platform threads.
+ */
+@Configuration
+public class ExecutionConfig {
+    @Bean(destroyMethod = "close")
+    public ExecutorService fanOutExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${wallet.fan-out.pool-size:32}") int poolSize) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fan-out-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(poolSize, Thread.ofPlatform().name("fan-out-", 0).daemon().factory());
+    }
+}
@@ -0,0 +1,71 @@
+package com.sp94dev.wallet.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sp94dev.wallet.instrument.InstrumentRepository;
+import com.sp94dev.wallet.instrument.InstrumentResponseCache;
+import com.sp94dev.wallet.transaction.TransactionIngestPipeline;
+import com.sp94dev.wallet.transaction.TransactionRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Store sizes as {@code wallet.store.size} gauges, instrument response cache hits and
+ * misses, and write-behind ingestion progress. All are only read when metrics are scraped,
+ * so they add nothing to the hot path.
+ */
+@Configuration
+public class MetricsConfig {
+    @Bean
+    public MeterBinder storeSizeMetrics(InstrumentRepository instruments, TransactionRepository transactions) {
+        return registry -> {
+            Gauge.builder("wallet.store.size", instruments, InstrumentRepository::count)
+                    .tag("store", "instruments")
+                    .description("Number of stored instruments")
+                    .register(registry);
+            Gauge.builder("wallet.store.size", transactions, TransactionRepository::count)
+                    .tag("store", "transactions")
+                    .description("Number of stored transactions")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder instrumentResponseCacheMetrics(InstrumentResponseCache cache) {
+        return registry -> {
+            FunctionCounter.builder("wallet.instruments.response-cache", cache, InstrumentResponseCache::hits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("wallet.instruments.response-cache", cache, InstrumentResponseCache::misses)
+                    .tag("result", "miss")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder transactionIngestMetrics(TransactionIngestPipeline pipeline) {
+        return registry -> {
+            if (!pipeline.isEnabled()) {
+                return;
+            }
+            Gauge.builder("wallet.transactions.ingest.pending", pipeline, p -> p.status().pending())
+                    .description("Accepted transactions not yet applied")
+                    .register(registry);
+            Gauge.builder("wallet.transactions.ingest.parked", pipeline, p -> p.status().parked())
+                    .description("Transactions that failed to apply and wait for a replay")
+                    .register(registry);
+            FunctionCounter.builder("wallet.transactions.ingest", pipeline, p -> p.status().applied())
+                    .tag("result", "applied")
+                    .register(registry);
+            FunctionCounter.builder("wallet.transactions.ingest", pipeline, p -> p.status().rejected())
+                    .tag("result", "rejected")
+                    .register(registry);
+            FunctionCounter.builder("wallet.transactions.ingest", pipeline, p -> p.status().failed())
+                    .tag("result", "failed")
+                    .register(registry);
+        };
+    }
+}
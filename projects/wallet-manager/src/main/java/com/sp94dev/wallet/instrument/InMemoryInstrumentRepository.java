@@ -1,59 +1,131 @@
 package com.sp94dev.wallet.instrument;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 
 import org.springframework.stereotype.Repository;
 
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Instruments are read far more often than written, so besides the map and its indexes the
+ * repository keeps an immutable, id-ordered snapshot of all rows with a version number.
+ * A write only bumps the version after it is applied; the snapshot is rebuilt lazily, at most
+ * once per version, by the first reader that finds it stale. The rebuild walks the sorted id
+ * set, so it is O(n) with no sort, and writers never wait on it. {@link #findAll()} and
+ * unfiltered queries return the snapshot as is.
+ * <p>
+ * Updates and deletes are compare-and-set on the row version, checked inside
+ * {@code compute} on the id, so the check and the write hold only that key's bin lock and
+ * concurrent writers to one instrument cannot overwrite each other unnoticed.
+ */
 @Repository
+@Timed("wallet.repository")
 public class InMemoryInstrumentRepository implements InstrumentRepository {
     private final Map<Long, Instrument> storage = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> ids = new ConcurrentSkipListSet<>();
     private final AtomicLong idCounter = new AtomicLong(1);
+    private final InstrumentIndex index = new InstrumentIndex();
+    private final AtomicLong version = new AtomicLong();
+    // taken only by readers rebuilding a stale snapshot, never by writers
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(-1, List.of());
+
+    private static final long FIRST_VERSION = 1;
+
+    private record Snapshot(long version, List<Instrument> instruments) {
+    }
 
     public InMemoryInstrumentRepository() {
-        storage.put(1L, new Instrument(1L, "AAPL", "USD", "NASDAQ", "STOCK"));
-        storage.put(2L, new Instrument(2L, "GOOGL", "USD", "NASDAQ", "ETF"));
-        storage.put(3L, new Instrument(3L, "TSLA", "USD", "NASDAQ", "STOCK"));
-        storage.put(4L, new Instrument(4L, "AMZN", "USD", "NASDAQ", "STOCK"));
-        storage.put(5L, new Instrument(5L, "MSFT", "USD", "NASDAQ", "STOCK"));
+        // through the id counter, so later saves do not reuse the seeded ids
+        for (Instrument instrument : List.of(
+                new Instrument(null, "AAPL", "USD", "NASDAQ", "STOCK"),
+                new Instrument(null, "GOOGL", "USD", "NASDAQ", "ETF"),
+                new Instrument(null, "TSLA", "USD", "NASDAQ", "STOCK"),
+                new Instrument(null, "AMZN", "USD", "NASDAQ", "STOCK"),
+                new Instrument(null, "MSFT", "USD", "NASDAQ", "STOCK"))) {
+            put(withId(idCounter.getAndIncrement(), FIRST_VERSION, instrument));
+        }
+        publish();
     }
 
     public Instrument save(Instrument instrument) {
-        Long id = idCounter.getAndIncrement();
-        Instrument newInstrument = new Instrument(
-                id,
-                instrument.ticker(),
-                instrument.currency(),
-                instrument.market(),
-                instrument.type());
-        storage.put(id, newInstrument);
+        Instrument newInstrument = withId(idCounter.getAndIncrement(), FIRST_VERSION, instrument);
+        put(newInstrument);
+        publish();
         return newInstrument;
     }
 
+    public List<Instrument> saveAll(List<Instrument> instruments) {
+        long firstId = idCounter.getAndAdd(instruments.size());
+        List<Instrument> saved = new ArrayList<>(instruments.size());
+        for (int i = 0; i < instruments.size(); i++) {
+            Instrument newInstrument = withId(firstId + i, FIRST_VERSION, instruments.get(i));
+            put(newInstrument);
+            saved.add(newInstrument);
+        }
+        publish();
+        return saved;
+    }
+
     public Optional<Instrument> findById(Long id) {
         return Optional.ofNullable(storage.get(id));
     }
 
+    public Optional<Instrument> findByTicker(String ticker) {
+        return index.findByTicker(ticker).stream().findFirst();
+    }
+
     public List<Instrument> findAll() {
-        return List.copyOf(storage.values());
+        return currentSnapshot().instruments();
     }
 
-    public void deleteById(Long id) {
-        storage.remove(id);
+    public long version() {
+        return version.get();
     }
 
-    public Instrument update(Long id, Instrument instrument) {
-        Instrument updatedInstrument = new Instrument(
-                id,
-                instrument.ticker(),
-                instrument.currency(),
-                instrument.market(),
-                instrument.type());
-        storage.put(id, updatedInstrument);
-        return updatedInstrument;
+    public InstrumentWriteResult update(Long id, Instrument instrument, Long expectedVersion) {
+        InstrumentWriteResult result = compareAndSet(id, expectedVersion,
+                existing -> withId(id, existing.version() + 1, instrument));
+        publishIfApplied(result);
+        return result;
+    }
+
+    public InstrumentWriteResult delete(Long id, Long expectedVersion) {
+        InstrumentWriteResult result = compareAndSet(id, expectedVersion, existing -> null);
+        publishIfApplied(result);
+        return result;
+    }
+
+    public List<InstrumentWriteResult> updateAll(List<Instrument> instruments) {
+        List<InstrumentWriteResult> results = new ArrayList<>(instruments.size());
+        for (Instrument instrument : instruments) {
+            results.add(instrument.id() == null
+                    ? InstrumentWriteResult.notFound()
+                    : compareAndSet(instrument.id(), instrument.version(),
+                            existing -> withId(instrument.id(), existing.version() + 1, instrument)));
+        }
+        publishIfAnyApplied(results);
+        return results;
+    }
+
+    public List<InstrumentWriteResult> deleteAll(List<InstrumentDeletion> deletions) {
+        List<InstrumentWriteResult> results = new ArrayList<>(deletions.size());
+        for (InstrumentDeletion deletion : deletions) {
+            results.add(deletion.id() == null
+                    ? InstrumentWriteResult.notFound()
+                    : compareAndSet(deletion.id(), deletion.version(), existing -> null));
+        }
+        publishIfAnyApplied(results);
+        return results;
     }
 
     public List<Instrument> findByCriteria(
@@ -61,13 +133,121 @@ public class InMemoryInstrumentRepository implements InstrumentRepository {
             String currency,
             String ticker,
             String market) {
-        return storage.values().stream()
-                .filter(instrument -> type == null || instrument.type().equals(type))
-                .filter(instrument -> currency == null || instrument.currency().equals(currency))
-                .filter(instrument -> ticker == null
-                        || instrument.ticker().toLowerCase().contains(ticker.toLowerCase()))
-                .filter(instrument -> market == null || instrument.market().equals(market))
-                .toList();
+        List<Instrument> matches = index.find(type, currency, ticker, market);
+        return matches != null ? matches : currentSnapshot().instruments();
+    }
+
+    public List<Instrument> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    public long count() {
+        return storage.size();
+    }
+
+    public List<Instrument> findAllOrderedByTicker(int limit) {
+        List<Instrument> result = index.orderedByTicker(limit);
+        if (result.size() < limit) {
+            storage.values().stream()
+                    .filter(instrument -> instrument.ticker() == null)
+                    .sorted(Comparator.comparing(Instrument::id))
+                    .limit(limit - result.size())
+                    .forEach(result::add);
+        }
+        return result;
+    }
+
+    private static Instrument withId(Long id, long version, Instrument instrument) {
+        return new Instrument(
+                id,
+                instrument.ticker(),
+                instrument.currency(),
+                instrument.market(),
+                instrument.type(),
+                version);
+    }
+
+    /*
+     * Applies next (null removes the row) when the id exists and the version matches, all
+     * inside compute on that id; the indexes change under the same bin lock.
+     */
+    private InstrumentWriteResult compareAndSet(Long id, Long expectedVersion, UnaryOperator<Instrument> next) {
+        InstrumentWriteResult[] result = { InstrumentWriteResult.notFound() };
+        storage.computeIfPresent(id, (key, existing) -> {
+            if (expectedVersion != null && !expectedVersion.equals(existing.version())) {
+                result[0] = InstrumentWriteResult.versionMismatch(existing);
+                return existing;
+            }
+            Instrument replacement = next.apply(existing);
+            index.remove(existing);
+            if (replacement != null) {
+                index.add(replacement);
+            } else {
+                ids.remove(key);
+            }
+            result[0] = InstrumentWriteResult.applied(replacement != null ? replacement : existing);
+            return replacement;
+        });
+        return result[0];
+    }
+
+    private void publishIfApplied(InstrumentWriteResult result) {
+        if (result.status() == InstrumentWriteResult.Status.APPLIED) {
+            publish();
+        }
+    }
+
+    // a batch of 404s and 412s changes nothing, so cached list responses stay valid
+    private void publishIfAnyApplied(List<InstrumentWriteResult> results) {
+        if (results.stream().anyMatch(result -> result.status() == InstrumentWriteResult.Status.APPLIED)) {
+            publish();
+        }
+    }
+
+    // Called after the write is applied, so a reader that sees the new version and rebuilds
+    // finds the write in the map
+    private void publish() {
+        version.incrementAndGet();
+    }
+
+    /*
+     * The version is read before the rows, so the snapshot holds at least every write finished
+     * before that version; a newer write bumps the version again and triggers the next rebuild.
+     */
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        long latest = version.get();
+        if (current.version() == latest) {
+            return current;
+        }
+        synchronized (rebuildLock) {
+            current = snapshot;
+            latest = version.get();
+            if (current.version() != latest) {
+                List<Instrument> instruments = new ArrayList<>(ids.size());
+                for (Long id : ids) {
+                    Instrument instrument = storage.get(id);
+                    if (instrument != null) {
+                        instruments.add(instrument);
+                    }
+                }
+                current = new Snapshot(latest, List.copyOf(instruments));
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    // Indexes are updated under the map bin lock, so a row and its postings change together
+    private void put(Instrument instrument) {
+        storage.compute(instrument.id(), (key, existing) -> {
+            if (existing != null) {
+                index.remove(existing);
+            }
+            index.add(instrument);
+            ids.add(key);
+            return instrument;
+        });
     }
 
 }
\ No newline at end of file
@@ -7,6 +7,11 @@ public record Instrument(
         @Schema(description = "Ticker symbol", example = "AAPL") String ticker,
         @Schema(description = "Currency", example = "USD") String currency,
         @Schema(description = "Market", example = "NASDAQ") String market,
-        @Schema(description = "Instrument type", example = "STOCK") String type) {
+        @Schema(description = "Instrument type", example = "STOCK") String type,
+        @Schema(description = "Optimistic lock version, 1 on create and incremented by every update; "
+                + "when given on update it must match the stored one", example = "1") Long version) {
 
+    public Instrument(Long id, String ticker, String currency, String market, String type) {
+        this(id, ticker, currency, market, type, null);
+    }
 }
@@ -0,0 +1,20 @@
+package com.sp94dev.wallet.instrument;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Response cache of the instrument read endpoints, bounded by the total size of the cached
+ * bodies ({@code maxSize}) rather than their number, since one list can outweigh thousands
+ * of single instruments. {@code maxAge} goes out as
+ * {@code Cache-Control}; zero means {@code no-cache}, i.e. clients keep the body but
+ * revalidate it with its ETag on every use.
+ */
+@ConfigurationProperties("wallet.instruments.response-cache")
+public record InstrumentCacheProperties(
+        @DefaultValue("16MB") DataSize maxSize,
+        @DefaultValue("0s") Duration maxAge) {
+}
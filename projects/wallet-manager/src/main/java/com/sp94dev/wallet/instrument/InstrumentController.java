@@ -1,9 +1,13 @@
 package com.sp94dev.wallet.instrument;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,14 +15,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.sp94dev.wallet.batch.BatchRequestReader;
+import com.sp94dev.wallet.batch.dto.BatchItemResult;
 import com.sp94dev.wallet.instrument.dto.InstrumentResponse;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -32,79 +42,293 @@ import lombok.extern.slf4j.Slf4j;
 @Tag(name = "Instruments", description = "Financial instruments management (stocks, ETFs)")
 public class InstrumentController {
         private final InstrumentService instrumentService;
+        private final BatchRequestReader batchRequestReader;
+        private final InstrumentResponseCache responseCache;
+        private final InstrumentIdempotencyKeys idempotencyKeys;
+
+        static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+        static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+        // Versions start at 1, so this one never matches
+        private static final long NO_VERSION = -1;
 
         @GetMapping()
-        @Operation(summary = "Get list of instruments", description = "Returns a list of all instruments with filtering and sorting options")
-        ResponseEntity<List<InstrumentResponse>> getAll(
+        @Operation(summary = "Get list of instruments", description = "Returns a list of all instruments with filtering and sorting options. "
+                        + "sort takes comma-separated fields (ticker, market, type, currency), prefix a field with - for descending order. "
+                        + "Responses are cached per query until an instrument changes; If-None-Match with the current ETag answers 304")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Instruments found", content = @Content(
+                                        mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                        array = @ArraySchema(schema = @Schema(implementation = InstrumentResponse.class)))),
+                        @ApiResponse(responseCode = "304", description = "Response unchanged since the given ETag"),
+                        @ApiResponse(responseCode = "400", description = "Invalid sort or limit")
+        })
+        ResponseEntity<byte[]> getAll(
                         @RequestParam(required = false) String type,
                         @RequestParam(required = false) String currency,
                         @RequestParam(required = false) String ticker,
                         @RequestParam(required = false) String market,
                         @RequestParam(required = false) String sort,
                         @RequestParam(required = false) Number limit) {
-                log.info("Get all instruments");
-                return ResponseEntity.ok(
-                                this.instrumentService.getAllInstruments(type, currency, ticker, market, sort, limit)
-                                                .stream()
-                                                .map(InstrumentResponse::from)
-                                                .toList());
+                log.debug("Get all instruments");
+                try {
+                        return cached(responseCache.getList(type, currency, ticker, market, sort, limit,
+                                        () -> this.instrumentService.getAllInstruments(type, currency, ticker, market, sort, limit)
+                                                        .stream()
+                                                        .map(InstrumentResponse::from)
+                                                        .toList()));
+                } catch (IllegalArgumentException e) {
+                        log.warn("Rejected instrument query: {}", e.getMessage());
+                        return ResponseEntity.badRequest().build();
+                }
+        }
+
+        @GetMapping("/search")
+        @Operation(summary = "Search instruments by ticker", description = "Ranked matches for autocomplete: exact ticker, "
+                        + "then tickers starting with q, then tickers containing q, then close misspellings. Case is ignored")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Matches, best first (possibly empty)"),
+                        @ApiResponse(responseCode = "400", description = "Blank query or limit outside 1-100")
+        })
+        public ResponseEntity<List<InstrumentResponse>> searchInstruments(
+                        @RequestParam String q,
+                        @RequestParam(defaultValue = "10") int limit) {
+                log.debug("Search instruments {}", q);
+                try {
+                        return ResponseEntity.ok(this.instrumentService.searchInstruments(q, limit)
+                                        .stream()
+                                        .map(InstrumentResponse::from)
+                                        .toList());
+                } catch (IllegalArgumentException e) {
+                        log.warn("Rejected instrument search: {}", e.getMessage());
+                        return ResponseEntity.badRequest().build();
+                }
         }
 
         @GetMapping("/{id}")
-        @Operation(summary = "Get instrument by ID")
+        @Operation(summary = "Get instrument by ID", description = "Cached until the instrument changes; "
+                        + "If-None-Match with the current ETag answers 304")
         @ApiResponses({
-                        @ApiResponse(responseCode = "200", description = "Instrument found"),
+                        @ApiResponse(responseCode = "200", description = "Instrument found", content = @Content(
+                                        mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                        schema = @Schema(implementation = InstrumentResponse.class))),
+                        @ApiResponse(responseCode = "304", description = "Instrument unchanged since the given ETag"),
                         @ApiResponse(responseCode = "404", description = "Instrument not found")
         })
-        public ResponseEntity<InstrumentResponse> getInstrument(@PathVariable Long id) {
-                log.info("Get instrument {}", id);
-                return instrumentService.getInstrumentById(id)
-                                .map(InstrumentResponse::from)
-                                .map(ResponseEntity::ok)
+        public ResponseEntity<byte[]> getInstrument(@PathVariable Long id) {
+                log.debug("Get instrument {}", id);
+                return responseCache.getById(id)
+                                .map(this::cached)
                                 .orElse(ResponseEntity.notFound().build());
 
         };
 
+        // A matching If-None-Match turns this into a bodiless 304 (HttpEntityMethodProcessor)
+        private ResponseEntity<byte[]> cached(InstrumentResponseCache.CachedResponse response) {
+                return ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .eTag(response.etag())
+                                .cacheControl(responseCache.cacheControl())
+                                .body(response.body());
+        }
+
         @PostMapping()
-        @Operation(summary = "Add new instrument")
+        @Operation(summary = "Add new instrument", description = "With an Idempotency-Key, retries of the same request "
+                        + "return the instrument created by the first one instead of creating another")
         @ApiResponses({
-                        @ApiResponse(responseCode = "201", description = "Instrument created successfully"),
-                        @ApiResponse(responseCode = "400", description = "Invalid input data")
+                        @ApiResponse(responseCode = "201", description = "Instrument created successfully (or replayed, "
+                                        + "see Idempotent-Replayed)"),
+                        @ApiResponse(responseCode = "400", description = "Invalid input data"),
+                        @ApiResponse(responseCode = "422", description = "Idempotency-Key reused with a different body")
         })
-        public ResponseEntity<InstrumentResponse> createInstrument(@RequestBody Instrument instrumentBody) {
-                log.info("Create instrument");
-                Instrument savedInstrument = this.instrumentService.createInstrument(instrumentBody);
+        public ResponseEntity<InstrumentResponse> createInstrument(@RequestBody Instrument instrumentBody,
+                        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+                log.debug("Create instrument");
+                Instrument savedInstrument;
+                boolean replayed = false;
+                if (idempotencyKey == null) {
+                        savedInstrument = this.instrumentService.createInstrument(instrumentBody);
+                } else {
+                        try {
+                                InstrumentIdempotencyKeys.Outcome outcome = idempotencyKeys.createOnce(idempotencyKey,
+                                                instrumentBody, () -> this.instrumentService.createInstrument(instrumentBody));
+                                savedInstrument = outcome.instrument();
+                                replayed = outcome.replayed();
+                        } catch (IllegalStateException e) {
+                                log.warn("Rejected instrument create: {}", e.getMessage());
+                                return ResponseEntity.unprocessableContent().build();
+                        }
+                }
                 InstrumentResponse instrumentResponse = InstrumentResponse.from(savedInstrument);
                 URI location = ServletUriComponentsBuilder.fromCurrentRequest()
                                 .path("/{id}")
                                 .buildAndExpand(instrumentResponse.id())
                                 .toUri();
-                log.info("Create instrument {}", instrumentResponse.id());
-                return ResponseEntity.created(location).body(instrumentResponse);
+                log.debug("Create instrument {}{}", instrumentResponse.id(), replayed ? " (replayed)" : "");
+                return ResponseEntity.created(location)
+                                .eTag(InstrumentResponseCache.etag(savedInstrument))
+                                .header(IDEMPOTENT_REPLAYED, String.valueOf(replayed))
+                                .body(instrumentResponse);
         };
 
         @PutMapping("/{id}")
-        @Operation(summary = "Update existing instrument")
+        @Operation(summary = "Update existing instrument", description = "If-Match with the instrument's ETag (or a version "
+                        + "in the body) makes the update conditional: it is applied only while that version is current")
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "Instrument updated successfully"),
-                        @ApiResponse(responseCode = "404", description = "Instrument not found")
+                        @ApiResponse(responseCode = "404", description = "Instrument not found"),
+                        @ApiResponse(responseCode = "412", description = "Instrument changed since the given version")
         })
         public ResponseEntity<InstrumentResponse> updateInstrument(@PathVariable Long id,
-                        @RequestBody Instrument instrument) {
-                Instrument updatedInstrument = this.instrumentService.updateInstrument(id, instrument);
-                log.info("Update instrument {}", updatedInstrument.id());
-                return Optional.ofNullable(updatedInstrument)
-                                .map(InstrumentResponse::from)
-                                .map(ResponseEntity::ok)
-                                .orElse(ResponseEntity.notFound().build());
+                        @RequestBody Instrument instrument,
+                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+                log.debug("Update instrument {}", id);
+                InstrumentWriteResult result = this.instrumentService.updateInstrument(id, instrument,
+                                expectedVersion(ifMatch));
+                return switch (result.status()) {
+                        case APPLIED -> ResponseEntity.ok()
+                                        .eTag(InstrumentResponseCache.etag(result.instrument()))
+                                        .body(InstrumentResponse.from(result.instrument()));
+                        case NOT_FOUND -> ResponseEntity.notFound().build();
+                        case VERSION_MISMATCH -> preconditionFailed(result);
+                };
         };
 
         @DeleteMapping("/{id}")
-        @Operation(summary = "Delete instrument")
-        @ApiResponse(responseCode = "204", description = "Instrument deleted successfully")
-        public ResponseEntity<Void> deleteInstrument(@PathVariable Long id) {
-                this.instrumentService.deleteInstrument(id);
-                log.info("Delete instrument {}", id);
-                return ResponseEntity.noContent().build();
+        @Operation(summary = "Delete instrument", description = "If-Match makes the delete conditional, as for updates")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "204", description = "Instrument deleted successfully"),
+                        @ApiResponse(responseCode = "404", description = "Instrument not found"),
+                        @ApiResponse(responseCode = "412", description = "Instrument changed since the given version")
+        })
+        public ResponseEntity<Void> deleteInstrument(@PathVariable Long id,
+                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+                log.debug("Delete instrument {}", id);
+                InstrumentWriteResult result = this.instrumentService.deleteInstrument(id, expectedVersion(ifMatch));
+                return switch (result.status()) {
+                        case APPLIED -> ResponseEntity.noContent().build();
+                        case NOT_FOUND -> ResponseEntity.notFound().build();
+                        case VERSION_MISMATCH -> preconditionFailed(result);
+                };
+        }
+
+        /*
+         * If-Match carries a single strong ETag, i.e. a quoted version; "*" only requires the
+         * instrument to exist, which every update does anyway. Anything else (weak or foreign
+         * tags, lists) can never match a version and fails the precondition.
+         */
+        private static Long expectedVersion(String ifMatch) {
+                if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+                        return null;
+                }
+                String tag = ifMatch.trim();
+                if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                        try {
+                                return Long.parseLong(tag.substring(1, tag.length() - 1));
+                        } catch (NumberFormatException e) {
+                                // falls through to a version nothing has
+                        }
+                }
+                return NO_VERSION;
+        }
+
+        // The current ETag lets the client re-read and retry with the right precondition
+        private static <T> ResponseEntity<T> preconditionFailed(InstrumentWriteResult result) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                                .eTag(InstrumentResponseCache.etag(result.instrument()))
+                                .build();
+        }
+
+        @PostMapping(path = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+        @Operation(summary = "Add many instruments", description = "Body is a JSON array or NDJSON; ids come from one range "
+                        + "reservation. Returns one result per item, in request order")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Batch applied, see per-item status"),
+                        @ApiResponse(responseCode = "400", description = "Malformed body or too many items")
+        })
+        public ResponseEntity<List<BatchItemResult<InstrumentResponse>>> createInstruments(InputStream body) {
+                log.debug("Create instruments batch");
+                try {
+                        List<Instrument> saved = instrumentService.createInstruments(
+                                        batchRequestReader.read(body, Instrument.class));
+                        List<BatchItemResult<InstrumentResponse>> results = new ArrayList<>(saved.size());
+                        for (int i = 0; i < saved.size(); i++) {
+                                results.add(BatchItemResult.ok(i, 201, InstrumentResponse.from(saved.get(i))));
+                        }
+                        return ResponseEntity.ok(results);
+                } catch (IllegalArgumentException e) {
+                        log.warn("Rejected instrument batch: {}", e.getMessage());
+                        return ResponseEntity.badRequest().build();
+                }
+        }
+
+        @PutMapping(path = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+        @Operation(summary = "Update many instruments", description = "Every item carries its id; unknown ids are reported as 404. "
+                        + "Items carrying a version are applied only while it is current, otherwise reported as 412")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Batch applied, see per-item status"),
+                        @ApiResponse(responseCode = "400", description = "Malformed body or too many items")
+        })
+        public ResponseEntity<List<BatchItemResult<InstrumentResponse>>> updateInstruments(InputStream body) {
+                log.debug("Update instruments batch");
+                try {
+                        List<Instrument> instruments = batchRequestReader.read(body, Instrument.class);
+                        List<InstrumentWriteResult> written = instrumentService.updateInstruments(instruments);
+                        List<BatchItemResult<InstrumentResponse>> results = new ArrayList<>(instruments.size());
+                        for (int i = 0; i < instruments.size(); i++) {
+                                Instrument instrument = instruments.get(i);
+                                InstrumentWriteResult result = written.get(i);
+                                if (instrument.id() == null) {
+                                        results.add(BatchItemResult.failed(i, 400, "Missing id"));
+                                } else if (result.status() == InstrumentWriteResult.Status.NOT_FOUND) {
+                                        results.add(BatchItemResult.failed(i, 404, "Unknown id " + instrument.id()));
+                                } else if (result.status() == InstrumentWriteResult.Status.VERSION_MISMATCH) {
+                                        results.add(BatchItemResult.failed(i, 412,
+                                                        "Version " + instrument.version() + " is not current, found "
+                                                                        + result.instrument().version()));
+                                } else {
+                                        results.add(BatchItemResult.ok(i, 200, InstrumentResponse.from(result.instrument())));
+                                }
+                        }
+                        return ResponseEntity.ok(results);
+                } catch (IllegalArgumentException e) {
+                        log.warn("Rejected instrument batch: {}", e.getMessage());
+                        return ResponseEntity.badRequest().build();
+                }
+        }
+
+        @DeleteMapping(path = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+        @Operation(summary = "Delete many instruments", description = "Body is an array (or NDJSON) of ids or {id, version} "
+                        + "objects; unknown ids are reported as 404, items whose version is not current as 412")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Batch applied, see per-item status"),
+                        @ApiResponse(responseCode = "400", description = "Malformed body or too many items")
+        })
+        public ResponseEntity<List<BatchItemResult<Long>>> deleteInstruments(InputStream body) {
+                log.debug("Delete instruments batch");
+                try {
+                        List<InstrumentDeletion> deletions = batchRequestReader.read(body, InstrumentDeletion.class);
+                        List<InstrumentWriteResult> removed = instrumentService.deleteInstruments(deletions);
+                        List<BatchItemResult<Long>> results = new ArrayList<>(deletions.size());
+                        for (int i = 0; i < deletions.size(); i++) {
+                                InstrumentDeletion deletion = deletions.get(i);
+                                InstrumentWriteResult result = removed.get(i);
+                                if (deletion.id() == null) {
+                                        results.add(BatchItemResult.failed(i, 400, "Missing id"));
+                                } else if (result.status() == InstrumentWriteResult.Status.NOT_FOUND) {
+                                        results.add(BatchItemResult.failed(i, 404, "Unknown id " + deletion.id()));
+                                } else if (result.status() == InstrumentWriteResult.Status.VERSION_MISMATCH) {
+                                        results.add(BatchItemResult.failed(i, 412,
+                                                        "Version " + deletion.version() + " is not current, found "
+                                                                        + result.instrument().version()));
+                                } else {
+                                        results.add(BatchItemResult.ok(i, 204, deletion.id()));
+                                }
+                        }
+                        return ResponseEntity.ok(results);
+                } catch (IllegalArgumentException e) {
+                        log.warn("Rejected instrument batch: {}", e.getMessage());
+                        return ResponseEntity.badRequest().build();
+                }
         }
 }
@@ -0,0 +1,19 @@
+package com.sp94dev.wallet.instrument;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * One item of a batch delete: the id and, optionally, the version the client last saw. In a
+ * request body it is either a bare id (unconditional delete) or {@code {"id": 3, "version": 2}}.
+ */
+public record InstrumentDeletion(Long id, Long version) {
+
+    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+    public InstrumentDeletion {
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static InstrumentDeletion of(long id) {
+        return new InstrumentDeletion(id, null);
+    }
+}
@@ -0,0 +1,72 @@
+package com.sp94dev.wallet.instrument;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the instrument created under each {@code Idempotency-Key}, so a retried
+ * {@code POST} returns the first result instead of creating a duplicate. The create runs
+ * inside {@code compute} on the key: concurrent retries with one key wait for the first
+ * attempt and replay it, requests with different keys do not contend. A failed create leaves
+ * no entry, so it can be retried with the same key.
+ */
+@Component
+public class InstrumentIdempotencyKeys {
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int sweepAbove;
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    /** The instrument created for the key and whether this call only replayed it. */
+    public record Outcome(Instrument instrument, boolean replayed) {
+    }
+
+    private record Entry(Instrument request, Instrument created, long expiresAt) {
+    }
+
+    public InstrumentIdempotencyKeys(InstrumentIdempotencyProperties properties) {
+        this.ttlNanos = properties.ttl().toNanos();
+        this.sweepAbove = properties.sweepAbove();
+    }
+
+    /**
+     * Runs {@code create} unless the key is already known. Reusing a key with a different
+     * request body throws {@link IllegalStateException}.
+     */
+    public Outcome createOnce(String key, Instrument request, Supplier<Instrument> create) {
+        long now = System.nanoTime();
+        boolean[] created = { false };
+        Entry entry = entries.compute(key, (k, existing) -> {
+            if (existing != null && existing.expiresAt() - now > 0) {
+                return existing;
+            }
+            created[0] = true;
+            return new Entry(request, create.get(), now + ttlNanos);
+        });
+        if (created[0]) {
+            sweepIfFull(now);
+        } else if (!entry.request().equals(request)) {
+            throw new IllegalStateException("Idempotency key " + key + " was used with a different request");
+        }
+        return new Outcome(entry.created(), !created[0]);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // at most once per interval, so a full map of live keys does not make every create O(n)
+    private void sweepIfFull(long now) {
+        long last = lastSweep.get();
+        if (entries.size() > sweepAbove && now - last > SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            entries.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.sp94dev.wallet.instrument;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code Idempotency-Key} handling of instrument creation. A key is remembered for
+ * {@code ttl}; expired keys are swept once more than {@code sweepAbove} are held. Live keys
+ * are never dropped early, since that would let a late retry create a duplicate.
+ */
+@ConfigurationProperties("wallet.instruments.idempotency")
+public record InstrumentIdempotencyProperties(
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("10000") int sweepAbove) {
+}
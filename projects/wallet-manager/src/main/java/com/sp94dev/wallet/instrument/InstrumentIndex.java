@@ -0,0 +1,142 @@
+package com.sp94dev.wallet.instrument;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Secondary indexes over {@link Instrument} used by {@link InMemoryInstrumentRepository}.
+ * <p>
+ * Type, currency and market each have a hash posting. A filter walks only the narrowest
+ * posting it names and checks the other fields on the instrument itself, since postings
+ * hold the instruments and not their ids: no probes into other postings and no second
+ * lookup in the storage. Tickers live in a sorted map for exact lookups and ordering, and
+ * in a {@link TickerSearchIndex} for case-insensitive substring filtering and ranked search.
+ * <p>
+ * Memory: one entry in each of the three attribute postings and one in the ticker map per
+ * instrument, roughly 4 x 40 bytes of {@link ConcurrentHashMap} nodes on top of the row,
+ * plus the ticker search index. Every save, update and delete touches those four postings.
+ */
+final class InstrumentIndex {
+    private final Map<String, Map<Long, Instrument>> byType = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, Instrument>> byCurrency = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, Instrument>> byMarket = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Map<Long, Instrument>> byTicker = new ConcurrentSkipListMap<>();
+    private final TickerSearchIndex tickerSearch = new TickerSearchIndex();
+
+    void add(Instrument instrument) {
+        addPosting(byType, instrument.type(), instrument);
+        addPosting(byCurrency, instrument.currency(), instrument);
+        addPosting(byMarket, instrument.market(), instrument);
+        addPosting(byTicker, instrument.ticker(), instrument);
+        tickerSearch.add(instrument);
+    }
+
+    void remove(Instrument instrument) {
+        removePosting(byType, instrument.type(), instrument);
+        removePosting(byCurrency, instrument.currency(), instrument);
+        removePosting(byMarket, instrument.market(), instrument);
+        removePosting(byTicker, instrument.ticker(), instrument);
+        tickerSearch.remove(instrument);
+    }
+
+    List<Instrument> findByTicker(String ticker) {
+        Map<Long, Instrument> postings = byTicker.get(ticker);
+        return postings != null ? List.copyOf(postings.values()) : List.of();
+    }
+
+    List<Instrument> search(String query, int limit) {
+        return tickerSearch.search(query, limit);
+    }
+
+    /** Walks the ticker map in order; instruments without a ticker are not indexed here. */
+    List<Instrument> orderedByTicker(int limit) {
+        List<Instrument> result = new ArrayList<>(Math.min(limit, 1024));
+        for (Map<Long, Instrument> postings : byTicker.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            postings.values().stream()
+                    .sorted(Comparator.comparing(Instrument::id))
+                    .limit(limit - result.size())
+                    .forEach(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Returns instruments matching every non-null criterion, or {@code null} when no
+     * criterion is given and the caller has to scan. The narrowest attribute posting drives;
+     * with a ticker criterion as well, tickers found through their trigrams drive instead
+     * when there are fewer distinct tickers than instruments in that posting.
+     */
+    List<Instrument> find(String type, String currency, String ticker, String market) {
+        Map<Long, Instrument> narrowest = narrower(posting(byType, type),
+                narrower(posting(byCurrency, currency), posting(byMarket, market)));
+        if (narrowest == null && ticker == null) {
+            return null;
+        }
+        Iterable<Instrument> candidates = narrowest != null && (ticker == null || narrowest.size() <= byTicker.size())
+                ? narrowest.values()
+                : tickerSearch.containing(ticker);
+        List<Instrument> result = new ArrayList<>();
+        for (Instrument instrument : candidates) {
+            if ((type == null || type.equals(instrument.type()))
+                    && (currency == null || currency.equals(instrument.currency()))
+                    && (market == null || market.equals(instrument.market()))
+                    && (ticker == null || containsIgnoreCase(instrument.ticker(), ticker))) {
+                result.add(instrument);
+            }
+        }
+        return result;
+    }
+
+    // null value = no criterion; a value nobody has yields an empty posting
+    private static Map<Long, Instrument> posting(Map<String, Map<Long, Instrument>> index, String value) {
+        return value != null ? index.getOrDefault(value, Map.of()) : null;
+    }
+
+    private static Map<Long, Instrument> narrower(Map<Long, Instrument> a, Map<Long, Instrument> b) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return a.size() <= b.size() ? a : b;
+    }
+
+    private static void addPosting(Map<String, Map<Long, Instrument>> index, String value, Instrument instrument) {
+        if (value == null) {
+            return;
+        }
+        index.compute(value, (key, postings) -> {
+            Map<Long, Instrument> result = postings != null ? postings : new ConcurrentHashMap<>();
+            result.put(instrument.id(), instrument);
+            return result;
+        });
+    }
+
+    private static void removePosting(Map<String, Map<Long, Instrument>> index, String value, Instrument instrument) {
+        if (value == null) {
+            return;
+        }
+        index.computeIfPresent(value, (key, postings) -> {
+            postings.remove(instrument.id(), instrument);
+            return postings.isEmpty() ? null : postings;
+        });
+    }
+
+    private static boolean containsIgnoreCase(String value, String part) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i <= value.length() - part.length(); i++) {
+            if (value.regionMatches(true, i, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
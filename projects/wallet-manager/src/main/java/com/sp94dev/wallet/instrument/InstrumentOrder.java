@@ -0,0 +1,60 @@
+package com.sp94dev.wallet.instrument;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Parsed {@code sort} parameter: comma-separated fields, {@code -} prefix for descending,
+ * e.g. {@code "type,-ticker"}. Ties are broken by id, so the result order is deterministic
+ * whichever sort strategy the service picks.
+ */
+record InstrumentOrder(List<SortKey> keys) {
+    static final InstrumentOrder UNSORTED = new InstrumentOrder(List.of());
+
+    record SortKey(String field, boolean descending) {
+    }
+
+    static InstrumentOrder parse(String sort, Map<String, Function<Instrument, String>> fields) {
+        if (sort == null || sort.isBlank()) {
+            return UNSORTED;
+        }
+        List<SortKey> keys = new ArrayList<>();
+        for (String token : sort.split(",")) {
+            String field = token.trim();
+            boolean descending = field.startsWith("-");
+            if (descending) {
+                field = field.substring(1);
+            }
+            if (!fields.containsKey(field)) {
+                throw new IllegalArgumentException("Unknown sort field '" + field + "', expected one of " + fields.keySet());
+            }
+            keys.add(new SortKey(field, descending));
+        }
+        return new InstrumentOrder(List.copyOf(keys));
+    }
+
+    boolean isUnsorted() {
+        return keys.isEmpty();
+    }
+
+    /** Order the repository already maintains in its ticker index. */
+    boolean isTickerAscending() {
+        return keys.size() == 1 && keys.getFirst().field().equals("ticker") && !keys.getFirst().descending();
+    }
+
+    Comparator<Instrument> comparator(Map<String, Function<Instrument, String>> fields) {
+        Comparator<Instrument> comparator = null;
+        for (SortKey key : keys) {
+            Comparator<String> values = key.descending()
+                    ? Comparator.nullsLast(Comparator.<String>reverseOrder())
+                    : Comparator.nullsLast(Comparator.<String>naturalOrder());
+            Comparator<Instrument> next = Comparator.comparing(fields.get(key.field()), values);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<Instrument> byId = Comparator.comparing(Instrument::id, Comparator.nullsLast(Comparator.naturalOrder()));
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+}
@@ -6,13 +6,50 @@ import java.util.Optional;
 public interface InstrumentRepository {
     Instrument save(Instrument instrument);
 
+    /** Saves a batch with a single id-range reservation; returned list keeps input order. */
+    List<Instrument> saveAll(List<Instrument> instruments);
+
     Optional<Instrument> findById(Long id);
 
+    Optional<Instrument> findByTicker(String ticker);
+
+    /** Immutable list of all instruments ordered by id, shared between readers until the next write. */
     List<Instrument> findAll();
 
-    void deleteById(Long id);
+    /** Incremented by every write; unchanged version means unchanged data. */
+    long version();
+
+    /**
+     * Replaces the instrument and increments its version, only if the id exists and, when
+     * {@code expectedVersion} is not null, the stored version equals it.
+     */
+    InstrumentWriteResult update(Long id, Instrument instrument, Long expectedVersion);
+
+    /** Removes the instrument under the same conditions as {@link #update}. */
+    InstrumentWriteResult delete(Long id, Long expectedVersion);
 
-    Instrument update(Long id, Instrument instrument);
+    /**
+     * Replaces instruments by their ids, each one as {@link #update} with the item's own
+     * version as the expected one. Results keep input order.
+     */
+    List<InstrumentWriteResult> updateAll(List<Instrument> instruments);
+
+    /**
+     * Removes instruments, each one as {@link #delete} with the item's version (if any) as the
+     * expected one. Results keep input order.
+     */
+    List<InstrumentWriteResult> deleteAll(List<InstrumentDeletion> deletions);
 
     List<Instrument> findByCriteria(String type, String currency, String ticker, String market);
+
+    /** First {@code limit} instruments ordered by ticker (then id), served from the ticker index. */
+    List<Instrument> findAllOrderedByTicker(int limit);
+
+    /**
+     * Up to {@code limit} instruments whose ticker matches {@code query}, best first: exact
+     * ticker, prefix, substring, then close misspellings. Case is ignored.
+     */
+    List<Instrument> search(String query, int limit);
+
+    long count();
 }
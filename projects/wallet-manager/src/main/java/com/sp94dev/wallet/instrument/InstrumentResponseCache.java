@@ -0,0 +1,222 @@
+package com.sp94dev.wallet.instrument;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.sp94dev.wallet.instrument.dto.InstrumentResponse;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Serialized JSON of instrument responses with their ETag, so a hit is one map lookup and the
+ * body is written as is. A single instrument is tagged with its version (see
+ * {@link #etag(Instrument)}), which {@code If-Match} on writes is checked against; lists get
+ * a content ETag (MD5 of the bytes, as {@code ShallowEtagHeaderFilter} computes it).
+ * Single instruments and list queries share one {@link ConcurrentHashMap} bounded by the total
+ * size of the cached bodies.
+ * <p>
+ * Eviction is approximate LRU: a hit only stamps its entry with a logical clock that moves
+ * on every insert (and skips the write when the stamp is already current), so hits never
+ * lock or contend on a shared list. When an insert takes the total over the limit, one thread
+ * sorts the entries by stamp and evicts the least recently used down to
+ * {@value #EVICT_TO_PERCENT}% of it, so the sort is paid once per many inserts; concurrent
+ * inserts do not wait for it.
+ * <p>
+ * Entries are validated against the store instead of being evicted by writers: a single
+ * instrument stays valid while the repository still holds the very instance it was built
+ * from, so a write invalidates exactly the ids it touched; a list stays valid while
+ * {@link InstrumentRepository#version()} is unchanged, since any write may change which rows
+ * match. The version is read before the query runs, so a racing write can only leave an
+ * entry stale, never mark an old body as current.
+ */
+@Component
+public class InstrumentResponseCache {
+    private final InstrumentRepository repository;
+    private final JsonMapper jsonMapper;
+    private final long maxBytes;
+    private final CacheControl cacheControl;
+
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** Response body and its ETag (quoted, ready for the header). */
+    public record CachedResponse(String etag, byte[] body) {
+    }
+
+    // Cache key of a list query; ticker matching is case-insensitive, so it is lower-cased
+    private record ListKey(String type, String currency, String ticker, String market, String sort, Long limit) {
+    }
+
+    private static final int EVICT_TO_PERCENT = 90;
+    // key, entry, map node and ETag string next to the body, roughly
+    private static final int ENTRY_OVERHEAD_BYTES = 200;
+
+    // source: the instrument for single entries, null for lists
+    private static final class Entry {
+        private final long version;
+        private final Instrument source;
+        private final CachedResponse response;
+        private final long weight;
+        private volatile long lastUsed;
+
+        private Entry(long version, Instrument source, CachedResponse response) {
+            this.version = version;
+            this.source = source;
+            this.response = response;
+            this.weight = response.body().length + ENTRY_OVERHEAD_BYTES;
+        }
+
+        private void touch(long now) {
+            if (lastUsed != now) {
+                lastUsed = now;
+            }
+        }
+    }
+
+    private record Candidate(Object key, Entry entry, long lastUsed) {
+    }
+
+    public InstrumentResponseCache(InstrumentRepository repository, JsonMapper jsonMapper,
+            InstrumentCacheProperties properties) {
+        this.repository = repository;
+        this.jsonMapper = jsonMapper;
+        this.maxBytes = properties.maxSize().toBytes();
+        this.cacheControl = properties.maxAge().isZero()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(properties.maxAge()).mustRevalidate();
+    }
+
+    public CacheControl cacheControl() {
+        return cacheControl;
+    }
+
+    public Optional<CachedResponse> getById(Long id) {
+        Optional<Instrument> instrument = repository.findById(id);
+        if (instrument.isEmpty()) {
+            return Optional.empty();
+        }
+        Entry entry = lookup(id);
+        if (entry != null && entry.source == instrument.get()) {
+            hits.increment();
+            return Optional.of(entry.response);
+        }
+        misses.increment();
+        CachedResponse response = new CachedResponse(etag(instrument.get()),
+                jsonMapper.writeValueAsBytes(InstrumentResponse.from(instrument.get())));
+        put(id, new Entry(0, instrument.get(), response));
+        return Optional.of(response);
+    }
+
+    /** Cached list for the normalized query; {@code query} runs only on a miss and may throw to reject it. */
+    public CachedResponse getList(String type, String currency, String ticker, String market, String sort,
+            Number limit, Supplier<List<InstrumentResponse>> query) {
+        ListKey key = new ListKey(type, currency, ticker != null ? ticker.toLowerCase(Locale.ROOT) : null, market,
+                normalizeSort(sort), limit != null ? limit.longValue() : null);
+        long version = repository.version();
+        Entry entry = lookup(key);
+        if (entry != null && entry.version == version) {
+            hits.increment();
+            return entry.response;
+        }
+        misses.increment();
+        CachedResponse response = serialize(query.get());
+        put(key, new Entry(version, null, response));
+        return response;
+    }
+
+    /** Strong ETag of a single instrument: its quoted version. */
+    public static String etag(Instrument instrument) {
+        return "\"" + instrument.version() + "\"";
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /** Estimated size of the cached entries, bodies included. */
+    long bytes() {
+        return bytes.get();
+    }
+
+    private CachedResponse serialize(Object body) {
+        byte[] json = jsonMapper.writeValueAsBytes(body);
+        return new CachedResponse("\"" + DigestUtils.md5DigestAsHex(json) + "\"", json);
+    }
+
+    // "ticker, -type" and "ticker,-type" sort the same way
+    private static String normalizeSort(String sort) {
+        return sort == null || sort.isBlank() ? null : sort.replace(" ", "");
+    }
+
+    private Entry lookup(Object key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.touch(clock.get());
+        }
+        return entry;
+    }
+
+    private void put(Object key, Entry entry) {
+        if (entry.weight > maxBytes) {
+            return;
+        }
+        entry.lastUsed = clock.incrementAndGet();
+        Entry previous = entries.put(key, entry);
+        if (bytes.addAndGet(entry.weight - (previous != null ? previous.weight : 0)) > maxBytes) {
+            evict();
+        }
+    }
+
+    // Whoever finds the lock taken leaves the work to its holder, which checks the total again
+    // after unlocking, so an insert that raced with the last pass is not left over the limit
+    private void evict() {
+        boolean evicted = true;
+        while (evicted && bytes.get() > maxBytes && evictionLock.tryLock()) {
+            try {
+                evicted = evictLeastRecentlyUsed(maxBytes / 100 * EVICT_TO_PERCENT);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    // Returns whether anything was evicted
+    private boolean evictLeastRecentlyUsed(long target) {
+        // stamps keep moving under concurrent hits, so sort a copy of them
+        List<Candidate> candidates = new ArrayList<>(entries.size());
+        entries.forEach((key, entry) -> candidates.add(new Candidate(key, entry, entry.lastUsed)));
+        candidates.sort(Comparator.comparingLong(Candidate::lastUsed));
+        boolean evicted = false;
+        for (Candidate candidate : candidates) {
+            if (bytes.get() <= target) {
+                break;
+            }
+            if (entries.remove(candidate.key(), candidate.entry())) {
+                bytes.addAndGet(-candidate.entry().weight);
+                evicted = true;
+            }
+        }
+        return evicted;
+    }
+}
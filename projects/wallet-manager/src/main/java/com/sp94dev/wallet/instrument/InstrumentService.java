@@ -1,9 +1,11 @@
 package com.sp94dev.wallet.instrument;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.function.Function;
 
 import org.springframework.stereotype.Service;
@@ -21,27 +23,102 @@ public class InstrumentService {
             "type", Instrument::type,
             "currency", Instrument::currency);
 
+    // Below n / factor rows a bounded heap beats a full sort
+    private static final int PARTIAL_SORT_FACTOR = 8;
+
+    static final int MAX_SEARCH_LIMIT = 100;
+
     public Optional<Instrument> getInstrumentById(Long id) {
         return this.inMemoryInstrumentRepository.findById(id);
     }
 
+    public Optional<Instrument> getInstrumentByTicker(String ticker) {
+        return this.inMemoryInstrumentRepository.findByTicker(ticker);
+    }
+
     public List<Instrument> getAllInstruments(String type, String currency, String ticker, String market, String sort,
             Number limit) {
-        return this.inMemoryInstrumentRepository.findByCriteria(type, currency, ticker, market).stream()
-                .sorted(Comparator.comparing(SORT_FIELDS.get(sort)))
-                .limit(limit != null ? limit.longValue() : Long.MAX_VALUE)
-                .toList();
+        InstrumentOrder order = InstrumentOrder.parse(sort, SORT_FIELDS);
+        int max = limit != null ? (int) Math.min(limit.longValue(), Integer.MAX_VALUE) : Integer.MAX_VALUE;
+        if (max < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        if (order.isTickerAscending() && type == null && currency == null && ticker == null && market == null) {
+            return this.inMemoryInstrumentRepository.findAllOrderedByTicker(max);
+        }
+
+        List<Instrument> instruments = this.inMemoryInstrumentRepository.findByCriteria(type, currency, ticker, market);
+        if (order.isUnsorted()) {
+            return instruments.size() <= max ? instruments : List.copyOf(instruments.subList(0, max));
+        }
+        Comparator<Instrument> comparator = order.comparator(SORT_FIELDS);
+        if ((long) max * PARTIAL_SORT_FACTOR < instruments.size()) {
+            return topK(instruments, comparator, max);
+        }
+        List<Instrument> sorted = new ArrayList<>(instruments);
+        sorted.sort(comparator);
+        return sorted.size() <= max ? sorted : List.copyOf(sorted.subList(0, max));
+    }
+
+    /** Ranked ticker matches for autocomplete; the limit is capped at {@value #MAX_SEARCH_LIMIT}. */
+    public List<Instrument> searchInstruments(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query must not be blank");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        return this.inMemoryInstrumentRepository.search(query, limit);
+    }
+
+    // Bounded max-heap of the k best rows: O(n log k) instead of sorting all n rows
+    private static List<Instrument> topK(List<Instrument> instruments, Comparator<Instrument> comparator, int k) {
+        if (k == 0) {
+            return List.of();
+        }
+        PriorityQueue<Instrument> heap = new PriorityQueue<>(k, comparator.reversed());
+        for (Instrument instrument : instruments) {
+            if (heap.size() < k) {
+                heap.add(instrument);
+            } else if (comparator.compare(instrument, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(instrument);
+            }
+        }
+        List<Instrument> result = new ArrayList<>(heap);
+        result.sort(comparator);
+        return result;
     }
 
     public Instrument createInstrument(Instrument instrument) {
         return this.inMemoryInstrumentRepository.save(instrument);
     }
 
-    public Instrument updateInstrument(Long id, Instrument instrument) {
-        return this.inMemoryInstrumentRepository.update(id, instrument);
+    public List<Instrument> createInstruments(List<Instrument> instruments) {
+        return this.inMemoryInstrumentRepository.saveAll(instruments);
+    }
+
+    /** Per item the outcome; items carrying a version are only applied while it is current. */
+    public List<InstrumentWriteResult> updateInstruments(List<Instrument> instruments) {
+        return this.inMemoryInstrumentRepository.updateAll(instruments);
+    }
+
+    /** Per item the outcome; items carrying a version are only removed while it is current. */
+    public List<InstrumentWriteResult> deleteInstruments(List<InstrumentDeletion> deletions) {
+        return this.inMemoryInstrumentRepository.deleteAll(deletions);
+    }
+
+    /**
+     * Updates the instrument if it exists and its version equals {@code expectedVersion}, or
+     * the version in the body when no expected version is given; with neither the update is
+     * unconditional.
+     */
+    public InstrumentWriteResult updateInstrument(Long id, Instrument instrument, Long expectedVersion) {
+        Long version = expectedVersion != null ? expectedVersion : instrument.version();
+        return this.inMemoryInstrumentRepository.update(id, instrument, version);
     }
 
-    public void deleteInstrument(Long id) {
-        this.inMemoryInstrumentRepository.deleteById(id);
+    public InstrumentWriteResult deleteInstrument(Long id, Long expectedVersion) {
+        return this.inMemoryInstrumentRepository.delete(id, expectedVersion);
     }
 }
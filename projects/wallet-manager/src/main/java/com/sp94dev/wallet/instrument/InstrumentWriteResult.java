@@ -0,0 +1,25 @@
+package com.sp94dev.wallet.instrument;
+
+/**
+ * Outcome of a conditional update or delete. {@code instrument} is the row written (or
+ * removed) when applied, the current row on a version mismatch and {@code null} when the id
+ * is unknown.
+ */
+public record InstrumentWriteResult(Status status, Instrument instrument) {
+
+    public enum Status {
+        APPLIED, NOT_FOUND, VERSION_MISMATCH
+    }
+
+    static InstrumentWriteResult applied(Instrument instrument) {
+        return new InstrumentWriteResult(Status.APPLIED, instrument);
+    }
+
+    static InstrumentWriteResult notFound() {
+        return new InstrumentWriteResult(Status.NOT_FOUND, null);
+    }
+
+    static InstrumentWriteResult versionMismatch(Instrument current) {
+        return new InstrumentWriteResult(Status.VERSION_MISMATCH, current);
+    }
+}
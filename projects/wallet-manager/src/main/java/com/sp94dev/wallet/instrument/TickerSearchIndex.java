@@ -0,0 +1,207 @@
+package com.sp94dev.wallet.instrument;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Case-insensitive ticker search for autocomplete, kept in {@link InstrumentIndex}: a sorted
+ * set of lower-cased tickers for prefix matches and trigram postings for substring and typo
+ * tolerant matches. Tickers are padded ({@code "  aapl "}) so leading characters get their
+ * own trigrams. Each distinct ticker enters the set and the postings when its first
+ * instrument is added and leaves with its last, inside {@code compute} on that ticker.
+ * <p>
+ * Ranking: the exact ticker, then prefix matches in ticker order, then tickers containing
+ * the query (earlier and shorter first), then the rest by trigram similarity (Jaccard) down
+ * to {@link #MIN_SIMILARITY}. Fuzzy candidates are only gathered when prefixes do not fill
+ * the limit, so the common short-prefix query is a single range walk.
+ */
+final class TickerSearchIndex {
+    static final double MIN_SIMILARITY = 0.3;
+
+    private final Map<String, Map<Long, Instrument>> byTicker = new ConcurrentHashMap<>();
+    private final NavigableSet<String> tickers = new ConcurrentSkipListSet<>();
+    private final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+
+    private record Candidate(String ticker, int position, double similarity) {
+        static final Comparator<Candidate> RANK = Comparator
+                .comparing((Candidate c) -> c.position() < 0)
+                .thenComparingInt(c -> c.position() < 0 ? 0 : c.position())
+                .thenComparing(Comparator.comparingDouble(Candidate::similarity).reversed())
+                .thenComparingInt(c -> c.ticker().length())
+                .thenComparing(Candidate::ticker);
+    }
+
+    void add(Instrument instrument) {
+        if (instrument.ticker() == null) {
+            return;
+        }
+        byTicker.compute(normalize(instrument.ticker()), (ticker, postings) -> {
+            Map<Long, Instrument> result = postings;
+            if (result == null) {
+                result = new ConcurrentHashMap<>();
+                tickers.add(ticker);
+                for (String trigram : trigrams(ticker)) {
+                    trigrams.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(ticker);
+                }
+            }
+            result.put(instrument.id(), instrument);
+            return result;
+        });
+    }
+
+    void remove(Instrument instrument) {
+        if (instrument.ticker() == null) {
+            return;
+        }
+        byTicker.computeIfPresent(normalize(instrument.ticker()), (ticker, postings) -> {
+            postings.remove(instrument.id(), instrument);
+            if (!postings.isEmpty()) {
+                return postings;
+            }
+            tickers.remove(ticker);
+            for (String trigram : trigrams(ticker)) {
+                trigrams.computeIfPresent(trigram, (t, matches) -> {
+                    matches.remove(ticker);
+                    return matches.isEmpty() ? null : matches;
+                });
+            }
+            return null;
+        });
+    }
+
+    /** Up to {@code limit} instruments ranked for the query; instruments sharing a ticker come in id order. */
+    List<Instrument> search(String query, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<String> ranked = new LinkedHashSet<>();
+        for (String ticker : tickers.tailSet(needle)) {
+            if (ranked.size() >= limit || !ticker.startsWith(needle)) {
+                break;
+            }
+            ranked.add(ticker);
+        }
+        if (ranked.size() < limit) {
+            fuzzyMatches(needle, ranked).stream()
+                    .limit(limit - ranked.size())
+                    .forEach(candidate -> ranked.add(candidate.ticker()));
+        }
+        List<Instrument> result = new ArrayList<>(limit);
+        for (String ticker : ranked) {
+            Map<Long, Instrument> postings = byTicker.get(ticker);
+            if (postings == null) {
+                continue;
+            }
+            postings.values().stream()
+                    .sorted(Comparator.comparing(Instrument::id))
+                    .limit(limit - result.size())
+                    .forEach(result::add);
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Instruments whose ticker contains {@code part}, ignoring case. Parts of three or more
+     * characters are looked up through the rarest of their trigrams; shorter ones scan the
+     * distinct tickers.
+     */
+    List<Instrument> containing(String part) {
+        String needle = part.toLowerCase(Locale.ROOT);
+        Iterable<String> candidates = tickers;
+        if (needle.length() >= 3) {
+            candidates = rarestInnerPosting(needle);
+        }
+        List<Instrument> result = new ArrayList<>();
+        for (String ticker : candidates) {
+            if (ticker.contains(needle)) {
+                Map<Long, Instrument> postings = byTicker.get(ticker);
+                if (postings != null) {
+                    result.addAll(postings.values());
+                }
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Jaccard >= MIN_SIMILARITY needs at least ceil(MIN_SIMILARITY * |Q|) shared trigrams, so
+     * every such ticker is in one of the |Q| - required + 1 rarest query postings; only those
+     * are walked, the rest are probed per candidate. Postings holding more than half of all
+     * tickers (the "  t" of a market where every ticker starts with T) say next to nothing
+     * and are not walked either. Substring matches share every inner trigram, so the rarest
+     * inner posting covers them. Ticker trigrams are counted with
+     * repeats (length + 2), which is exact for all but tickers with a repeated trigram.
+     */
+    private List<Candidate> fuzzyMatches(String needle, Set<String> exclude) {
+        List<Set<String>> postings = new ArrayList<>();
+        for (String trigram : trigrams(needle)) {
+            postings.add(trigrams.getOrDefault(trigram, Set.of()));
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        int required = (int) Math.ceil(MIN_SIMILARITY * postings.size());
+        Set<String> candidates = new HashSet<>();
+        int common = byTicker.size() / 2;
+        for (int i = 0; i < postings.size() - required + 1 && postings.get(i).size() <= common; i++) {
+            candidates.addAll(postings.get(i));
+        }
+        if (needle.length() >= 3) {
+            candidates.addAll(rarestInnerPosting(needle));
+        }
+        List<Candidate> result = new ArrayList<>();
+        for (String ticker : candidates) {
+            if (exclude.contains(ticker)) {
+                continue;
+            }
+            int shared = 0;
+            for (Set<String> posting : postings) {
+                if (posting.contains(ticker)) {
+                    shared++;
+                }
+            }
+            double similarity = (double) shared / (postings.size() + ticker.length() + 2 - shared);
+            int position = ticker.indexOf(needle);
+            if (position >= 0 || similarity >= MIN_SIMILARITY) {
+                result.add(new Candidate(ticker, position, similarity));
+            }
+        }
+        result.sort(Candidate.RANK);
+        return result;
+    }
+
+    private Set<String> rarestInnerPosting(String needle) {
+        Set<String> rarest = null;
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            Set<String> postings = trigrams.getOrDefault(needle.substring(i, i + 3), Set.of());
+            if (rarest == null || postings.size() < rarest.size()) {
+                rarest = postings;
+            }
+        }
+        return rarest;
+    }
+
+    private static Set<String> trigrams(String ticker) {
+        String padded = "  " + ticker + " ";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static String normalize(String ticker) {
+        return ticker.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -9,13 +9,15 @@ public record InstrumentResponse(
         @Schema(description = "Ticker symbol", example = "AAPL") String ticker,
         @Schema(description = "Currency of the instrument", example = "USD") String currency,
         @Schema(description = "Market where instrument is traded", example = "NASDAQ") String market,
-        @Schema(description = "Type of the instrument", example = "STOCK") String type) {
+        @Schema(description = "Type of the instrument", example = "STOCK") String type,
+        @Schema(description = "Version, also sent as the ETag of the instrument", example = "1") Long version) {
     public static InstrumentResponse from(Instrument instrument) {
         return new InstrumentResponse(
                 instrument.id(),
                 instrument.ticker(),
                 instrument.currency(),
                 instrument.market(),
-                instrument.type());
+                instrument.type(),
+                instrument.version());
     }
 }
@@ -0,0 +1,30 @@
+package com.sp94dev.wallet.portfolio;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.sp94dev.wallet.portfolio.dto.PortfolioResponse;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/portfolio")
+@Tag(name = "Portfolio", description = "Portfolio dashboard: value, cost and profit")
+public class PortfolioController {
+
+    private final PortfolioService portfolioService;
+
+    @GetMapping
+    @Operation(summary = "Get portfolio", description = "Returns open positions with cost basis, market value and realized/unrealized profit")
+    public ResponseEntity<PortfolioResponse> getPortfolio() {
+        log.debug("Get portfolio");
+        return ResponseEntity.ok(portfolioService.getPortfolio());
+    }
+}
@@ -0,0 +1,152 @@
+package com.sp94dev.wallet.portfolio;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.stereotype.Service;
+
+import com.sp94dev.wallet.portfolio.dto.PortfolioResponse;
+import com.sp94dev.wallet.portfolio.dto.PositionResponse;
+import com.sp94dev.wallet.price.Price;
+import com.sp94dev.wallet.price.PriceCache;
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-instrument positions kept up to date on every recorded transaction, so the portfolio
+ * costs O(instruments) to read no matter how long the history is. Positions are rebuilt
+ * from the transaction log once at startup. Valuation uses the cached current price and
+ * falls back to the last traded price when no source knows the instrument. Positions are
+ * priced concurrently on the fan-out executor, so a slow price source costs one round trip
+ * per request instead of one per position.
+ * <p>
+ * Updated or deleted transactions cannot be taken back out of an average-cost position, so
+ * the affected instruments are recomputed from their own history instead, read through the
+ * repository's per-instrument index; other instruments' transactions are not touched.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PortfolioService {
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+
+    private final TransactionRepository transactionRepository;
+    private final PriceCache priceCache;
+    private final ExecutorService fanOutExecutor;
+    private final Map<Long, Position> positions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        positions.clear();
+        long replayed = replay(positions);
+        log.info("Rebuilt {} positions from {} transactions", positions.size(), replayed);
+    }
+
+    /**
+     * Recomputes the positions of {@code instrumentIds} from their transactions, in id order
+     * as at startup; costs the size of those instruments' histories, not of the whole log.
+     * The caller keeps new transactions of these instruments out until it returns.
+     */
+    public void rebuild(Set<Long> instrumentIds) {
+        Map<Long, Position> rebuilt = new HashMap<>();
+        for (Long instrumentId : instrumentIds) {
+            for (Transaction transaction : transactionRepository.findByInstrument(instrumentId)) {
+                applyTo(rebuilt, transaction);
+            }
+        }
+        for (Long instrumentId : instrumentIds) {
+            Position position = rebuilt.get(instrumentId);
+            if (position != null) {
+                positions.put(instrumentId, position);
+            } else {
+                positions.remove(instrumentId);
+            }
+        }
+    }
+
+    public void apply(Transaction transaction) {
+        applyTo(positions, transaction);
+    }
+
+    public void applyAll(List<Transaction> transactions) {
+        transactions.forEach(this::apply);
+    }
+
+    Position position(Long instrumentId) {
+        return positions.get(instrumentId);
+    }
+
+    private long replay(Map<Long, Position> target) {
+        long replayed = 0;
+        Long cursor = null;
+        List<Transaction> page;
+        do {
+            page = transactionRepository.findPage(cursor, REBUILD_PAGE_SIZE);
+            for (Transaction transaction : page) {
+                applyTo(target, transaction);
+            }
+            replayed += page.size();
+            cursor = page.isEmpty() ? cursor : page.getLast().id();
+        } while (page.size() == REBUILD_PAGE_SIZE);
+        return replayed;
+    }
+
+    private static void applyTo(Map<Long, Position> target, Transaction transaction) {
+        if (transaction.instrumentId() == null || transaction.type() == null || transaction.quantity() == null
+                || transaction.price() == null) {
+            return;
+        }
+        target.compute(transaction.instrumentId(),
+                (instrumentId, position) -> (position != null ? position : Position.empty(instrumentId))
+                        .apply(transaction));
+    }
+
+    public PortfolioResponse getPortfolio() {
+        List<Position> sorted = positions.values().stream()
+                .sorted(Comparator.comparing(Position::instrumentId))
+                .toList();
+        List<PositionResponse> responses = sorted.size() <= 1
+                ? sorted.stream().map(this::toResponse).toList()
+                : sorted.stream()
+                        .map(position -> CompletableFuture.supplyAsync(() -> toResponse(position), fanOutExecutor))
+                        .toList()
+                        .stream()
+                        .map(CompletableFuture::join)
+                        .toList();
+        double totalCost = 0;
+        double marketValue = 0;
+        double realizedPnl = 0;
+        for (PositionResponse position : responses) {
+            totalCost += position.costBasis();
+            marketValue += position.marketValue();
+            realizedPnl += position.realizedPnl();
+        }
+        return new PortfolioResponse(totalCost, marketValue, marketValue - totalCost, realizedPnl, responses);
+    }
+
+    private PositionResponse toResponse(Position position) {
+        double price = priceCache.get(position.instrumentId())
+                .map(Price::price)
+                .orElse(position.lastPrice());
+        double marketValue = position.quantity() * price;
+        return new PositionResponse(
+                position.instrumentId(),
+                position.quantity(),
+                position.averageCost(),
+                position.costBasis(),
+                price,
+                marketValue,
+                marketValue - position.costBasis(),
+                position.realizedPnl());
+    }
+}
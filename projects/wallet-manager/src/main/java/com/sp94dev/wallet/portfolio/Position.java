@@ -0,0 +1,50 @@
+package com.sp94dev.wallet.portfolio;
+
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionType;
+
+/**
+ * Running position in one instrument using the average-cost method (no FIFO, per PRD).
+ * Immutable: {@link #apply(Transaction)} returns the next state.
+ * <p>
+ * Quantity and cost basis are signed: selling more than is held closes the long side at its
+ * average cost and opens a short for the rest at the sell price (negative quantity, cost
+ * basis = minus the proceeds). A later buy covers the short first, realizing the difference
+ * against the short's average price, and only the remainder opens a new long. Whichever side
+ * is reduced, realized P&L is counted on the closed quantity only.
+ */
+record Position(
+        Long instrumentId,
+        double quantity,
+        double costBasis,
+        double realizedPnl,
+        double lastPrice) {
+
+    static Position empty(Long instrumentId) {
+        return new Position(instrumentId, 0, 0, 0, 0);
+    }
+
+    /** Average price of the open side: paid for a long, received for a short. */
+    double averageCost() {
+        return quantity != 0 ? costBasis / quantity : 0;
+    }
+
+    Position apply(Transaction transaction) {
+        double price = transaction.price();
+        double delta = transaction.type() == TransactionType.BUY ? transaction.quantity() : -transaction.quantity();
+        if (quantity == 0 || delta == 0 || Math.signum(delta) == Math.signum(quantity)) {
+            return new Position(instrumentId, quantity + delta, costBasis + delta * price, realizedPnl, price);
+        }
+        double averageCost = averageCost();
+        double closed = Math.min(Math.abs(delta), Math.abs(quantity));
+        double realized = realizedPnl + Math.signum(quantity) * closed * (price - averageCost);
+        double opened = Math.abs(delta) - closed;
+        if (opened > 0) {
+            // crossed zero: the remainder opens the other side at this price
+            return new Position(instrumentId, Math.signum(delta) * opened, Math.signum(delta) * opened * price,
+                    realized, price);
+        }
+        double remaining = quantity + delta;
+        return new Position(instrumentId, remaining, remaining != 0 ? remaining * averageCost : 0, realized, price);
+    }
+}
@@ -0,0 +1,13 @@
+package com.sp94dev.wallet.portfolio.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record PortfolioResponse(
+        @Schema(description = "Cost of all open positions", example = "10000.0") double totalCost,
+        @Schema(description = "Current value of all open positions", example = "12500.0") double marketValue,
+        @Schema(description = "Market value minus total cost", example = "2500.0") double unrealizedPnl,
+        @Schema(description = "Profit locked in by sells across all instruments", example = "300.0") double realizedPnl,
+        @Schema(description = "Per-instrument positions") List<PositionResponse> positions) {
+}
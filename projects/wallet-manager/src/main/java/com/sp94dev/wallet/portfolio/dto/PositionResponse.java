@@ -0,0 +1,14 @@
+package com.sp94dev.wallet.portfolio.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record PositionResponse(
+        @Schema(description = "ID of the financial instrument", example = "1") Long instrumentId,
+        @Schema(description = "Net quantity held, negative for a short position", example = "10.0") double quantity,
+        @Schema(description = "Average price per unit: paid for a long, received for a short", example = "150.0") double averageCost,
+        @Schema(description = "Cost of the units held, minus the proceeds for a short position", example = "1500.0") double costBasis,
+        @Schema(description = "Price used for valuation", example = "185.5") double price,
+        @Schema(description = "Quantity times valuation price", example = "1855.0") double marketValue,
+        @Schema(description = "Market value minus cost basis", example = "355.0") double unrealizedPnl,
+        @Schema(description = "Profit locked in by sells", example = "42.0") double realizedPnl) {
+}
@@ -0,0 +1,79 @@
+package com.sp94dev.wallet.price;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+
+import com.sp94dev.wallet.instrument.Instrument;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local stand-in for a market data provider: reads {@code ticker,price[,updated_at]} lines
+ * from {@code wallet.prices.file} and re-reads the file when it changes on disk. Without a
+ * configured file it knows no prices.
+ */
+@Slf4j
+@Component
+public class CsvPriceSource implements PriceSource {
+    private final Path file;
+    private volatile Snapshot snapshot = new Snapshot(null, Map.of());
+
+    private record Snapshot(Instant modified, Map<String, Quote> quotes) {
+    }
+
+    private record Quote(double price, Instant updatedAt) {
+    }
+
+    public CsvPriceSource(PriceProperties properties) {
+        this.file = properties.file() != null && !properties.file().isBlank() ? Path.of(properties.file()) : null;
+    }
+
+    public Optional<Price> fetch(Instrument instrument) {
+        Quote quote = current().quotes().get(instrument.ticker());
+        return Optional.ofNullable(quote).map(q -> new Price(instrument.id(), q.price(), q.updatedAt()));
+    }
+
+    private Snapshot current() {
+        if (file == null || !Files.isReadable(file)) {
+            return snapshot;
+        }
+        try {
+            Instant modified = Files.getLastModifiedTime(file).toInstant();
+            Snapshot loaded = snapshot;
+            if (!modified.equals(loaded.modified())) {
+                loaded = new Snapshot(modified, parse(Files.readAllLines(file), modified));
+                snapshot = loaded;
+                log.info("Loaded {} prices from {}", loaded.quotes().size(), file);
+            }
+            return loaded;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read prices from " + file, e);
+        }
+    }
+
+    private static Map<String, Quote> parse(List<String> lines, Instant modified) {
+        Map<String, Quote> quotes = new HashMap<>();
+        for (String line : lines) {
+            String[] fields = line.split(",");
+            if (fields.length < 2 || fields[0].isBlank() || fields[0].trim().equalsIgnoreCase("ticker")) {
+                continue;
+            }
+            try {
+                Instant updatedAt = fields.length > 2 ? Instant.parse(fields[2].trim()) : modified;
+                quotes.put(fields[0].trim(), new Quote(Double.parseDouble(fields[1].trim()), updatedAt));
+            } catch (RuntimeException e) {
+                log.warn("Skipping price line '{}': {}", line, e.getMessage());
+            }
+        }
+        return Map.copyOf(quotes);
+    }
+}
@@ -0,0 +1,11 @@
+package com.sp94dev.wallet.price;
+
+import java.time.Instant;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record Price(
+        @Schema(description = "ID of the financial instrument", example = "1") Long instrumentId,
+        @Schema(description = "Price per unit", example = "185.5") double price,
+        @Schema(description = "When the source published the price") Instant updatedAt) {
+}
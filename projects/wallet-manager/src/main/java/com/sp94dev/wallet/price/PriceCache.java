@@ -0,0 +1,159 @@
+package com.sp94dev.wallet.price;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.sp94dev.wallet.instrument.InstrumentRepository;
+import com.sp94dev.wallet.price.dto.PriceCacheStats;
+
+/**
+ * Cache of current prices keyed by {@code Instrument.id()}: size-bounded LRU with a TTL per
+ * entry. Concurrent misses for the same instrument share one {@link PriceSource} call.
+ * Missing prices are not cached, so a price that shows up later is picked up on the next
+ * lookup.
+ */
+@Service
+public class PriceCache {
+    private final PriceSource source;
+    private final InstrumentRepository instrumentRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Entry> entries;
+    private final Map<Long, CompletableFuture<Optional<Price>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private record Entry(Price price, long expiresAt) {
+    }
+
+    @Autowired
+    public PriceCache(PriceSource source, InstrumentRepository instrumentRepository, PriceProperties properties) {
+        this(source, instrumentRepository, properties, System::nanoTime);
+    }
+
+    PriceCache(PriceSource source, InstrumentRepository instrumentRepository, PriceProperties properties,
+            LongSupplier nanoTime) {
+        this.source = source;
+        this.instrumentRepository = instrumentRepository;
+        this.maxSize = properties.cacheMaxSize();
+        this.ttlNanos = properties.cacheTtl().toNanos();
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<Price> get(Long instrumentId) {
+        Price cached = lookup(instrumentId);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+
+        CompletableFuture<Optional<Price>> fetch = new CompletableFuture<>();
+        CompletableFuture<Optional<Price>> running = inFlight.putIfAbsent(instrumentId, fetch);
+        if (running != null) {
+            coalesced.increment();
+            return running.join();
+        }
+        try {
+            // another thread may have finished its fetch between our lookup and putIfAbsent
+            Price loaded = lookup(instrumentId);
+            Optional<Price> price = loaded != null
+                    ? Optional.of(loaded)
+                    : instrumentRepository.findById(instrumentId).flatMap(source::fetch);
+            price.ifPresent(this::put);
+            fetch.complete(price);
+            return price;
+        } catch (RuntimeException e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(instrumentId, fetch);
+        }
+    }
+
+    public void invalidate(Long instrumentId) {
+        lock.lock();
+        try {
+            entries.remove(instrumentId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PriceCacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new PriceCacheStats(
+                hitCount,
+                missCount,
+                coalesced.sum(),
+                evictions.sum(),
+                expirations.sum(),
+                size(),
+                maxSize,
+                lookups == 0 ? 0 : (double) hitCount / lookups);
+    }
+
+    private Price lookup(Long instrumentId) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(instrumentId);
+            if (entry == null) {
+                return null;
+            }
+            if (nanoTime.getAsLong() - entry.expiresAt() >= 0) {
+                entries.remove(instrumentId);
+                expirations.increment();
+                return null;
+            }
+            return entry.price();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Price price) {
+        lock.lock();
+        try {
+            entries.put(price.instrumentId(), new Entry(price, nanoTime.getAsLong() + ttlNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
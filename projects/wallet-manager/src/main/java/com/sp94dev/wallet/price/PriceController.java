@@ -0,0 +1,42 @@
+package com.sp94dev.wallet.price;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.sp94dev.wallet.price.dto.PriceCacheStats;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/prices")
+@Tag(name = "Prices", description = "Current instrument prices (cached)")
+public class PriceController {
+
+    private final PriceCache priceCache;
+
+    @GetMapping("/{instrumentId}")
+    @Operation(summary = "Get current price of an instrument")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Price found"),
+            @ApiResponse(responseCode = "404", description = "Instrument unknown or no price available")
+    })
+    public ResponseEntity<Price> getPrice(@PathVariable Long instrumentId) {
+        return priceCache.get(instrumentId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Get price cache counters", description = "Hit/miss/eviction counters for sizing the cache")
+    public ResponseEntity<PriceCacheStats> getCacheStats() {
+        return ResponseEntity.ok(priceCache.stats());
+    }
+}
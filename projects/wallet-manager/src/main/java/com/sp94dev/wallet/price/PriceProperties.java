@@ -0,0 +1,13 @@
+package com.sp94dev.wallet.price;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("wallet.prices")
+public record PriceProperties(
+        String file,
+        @DefaultValue("10000") int cacheMaxSize,
+        @DefaultValue("5m") Duration cacheTtl) {
+}
@@ -0,0 +1,11 @@
+package com.sp94dev.wallet.price;
+
+import java.util.Optional;
+
+import com.sp94dev.wallet.instrument.Instrument;
+
+/** Where current prices come from. Calls may be slow; {@link PriceCache} sits in front. */
+public interface PriceSource {
+
+    Optional<Price> fetch(Instrument instrument);
+}
@@ -0,0 +1,14 @@
+package com.sp94dev.wallet.price.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record PriceCacheStats(
+        @Schema(description = "Lookups answered from the cache", example = "950") long hits,
+        @Schema(description = "Lookups that had to go to the price source", example = "50") long misses,
+        @Schema(description = "Misses that joined a fetch already in flight", example = "10") long coalesced,
+        @Schema(description = "Entries dropped because the cache was full", example = "0") long evictions,
+        @Schema(description = "Entries dropped because their TTL passed", example = "5") long expirations,
+        @Schema(description = "Entries currently cached", example = "40") int size,
+        @Schema(description = "Configured maximum number of entries", example = "10000") int maxSize,
+        @Schema(description = "hits / (hits + misses)", example = "0.95") double hitRatio) {
+}
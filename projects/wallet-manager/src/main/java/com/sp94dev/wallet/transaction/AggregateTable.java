@@ -0,0 +1,108 @@
+package com.sp94dev.wallet.transaction;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table from a {@code long} group key to count, volume and value, held
+ * in parallel primitive arrays so accumulating a row neither boxes nor allocates. Not thread
+ * safe: every fork-join leaf fills its own table and tables are merged as subtasks join.
+ * A slot is free while its count is zero.
+ */
+public final class AggregateTable {
+    private long[] keys;
+    private long[] counts;
+    private double[] volumes;
+    private double[] values;
+    private int size;
+
+    @FunctionalInterface
+    public interface Row {
+        void accept(long key, long count, double volume, double value);
+    }
+
+    public AggregateTable() {
+        this(16);
+    }
+
+    private AggregateTable(int capacity) {
+        keys = new long[capacity];
+        counts = new long[capacity];
+        volumes = new double[capacity];
+        values = new double[capacity];
+    }
+
+    void add(long key, double volume, double value) {
+        add(key, 1, volume, value);
+    }
+
+    /** Folds the other table into this one; the caller keeps whichever table is larger as the target. */
+    void merge(AggregateTable other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.counts[slot] != 0) {
+                add(other.keys[slot], other.counts[slot], other.volumes[slot], other.values[slot]);
+            }
+        }
+    }
+
+    static AggregateTable merged(AggregateTable left, AggregateTable right) {
+        AggregateTable target = left.size >= right.size ? left : right;
+        target.merge(target == left ? right : left);
+        return target;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Visits rows in ascending key order. */
+    public void forEach(Row row) {
+        long[] sortedKeys = new long[size];
+        int next = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (counts[slot] != 0) {
+                sortedKeys[next++] = keys[slot];
+            }
+        }
+        Arrays.sort(sortedKeys);
+        for (long key : sortedKeys) {
+            int slot = find(key);
+            row.accept(key, counts[slot], volumes[slot], values[slot]);
+        }
+    }
+
+    private void add(long key, long count, double volume, double value) {
+        int slot = find(key);
+        if (counts[slot] == 0) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                counts[slot] = count;
+                volumes[slot] = volume;
+                values[slot] = value;
+                grow();
+                return;
+            }
+        }
+        counts[slot] += count;
+        volumes[slot] += volume;
+        values[slot] += value;
+    }
+
+    // Slot holding the key, or the free slot where it belongs
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while (counts[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        AggregateTable larger = new AggregateTable(keys.length * 2);
+        larger.merge(this);
+        keys = larger.keys;
+        counts = larger.counts;
+        volumes = larger.volumes;
+        values = larger.values;
+    }
+}
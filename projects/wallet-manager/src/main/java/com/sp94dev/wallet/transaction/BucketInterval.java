@@ -0,0 +1,22 @@
+package com.sp94dev.wallet.transaction;
+
+import java.time.LocalDate;
+
+/** Width of the pre-aggregated transaction buckets; keys are epoch days or epoch months. */
+public enum BucketInterval {
+    DAY, MONTH;
+
+    long key(LocalDate date) {
+        return switch (this) {
+            case DAY -> date.toEpochDay();
+            case MONTH -> date.getYear() * 12L + date.getMonthValue() - 1;
+        };
+    }
+
+    LocalDate start(long key) {
+        return switch (this) {
+            case DAY -> LocalDate.ofEpochDay(key);
+            case MONTH -> LocalDate.of((int) Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1, 1);
+        };
+    }
+}
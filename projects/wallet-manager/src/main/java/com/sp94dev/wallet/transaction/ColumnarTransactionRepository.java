@@ -0,0 +1,463 @@
+package com.sp94dev.wallet.transaction;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import com.sp94dev.wallet.transaction.dto.TransactionBucket;
+import com.sp94dev.wallet.transaction.dto.TransactionStats;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Transaction store laid out as growable primitive columns (~37 bytes per row instead of a
+ * boxed record plus a map node). Enabled with the {@code columnar} Spring profile.
+ * <p>
+ * Rows are appended under a single writer lock and published through the volatile
+ * {@code size}; readers never lock. Missing values are kept as sentinels: {@code NaN} for
+ * quantity/price, {@link #NO_VALUE} for instrument id, {@link #NO_DATE} for date and
+ * {@link #NO_TYPE} for type. Deleted rows stay in place with type {@link #DELETED}.
+ * <p>
+ * Updates and deletes rewrite existing rows, so they also take the write side of
+ * {@code rowLock}; readers read optimistically and re-read under its read side only when a
+ * row changed underneath them. Appends never touch published rows and skip that lock.
+ * <p>
+ * Date-range queries go through skip-lists of row offsets ordered by (epoch day, row), one over
+ * all dated rows and one per instrument, so "last 30 days of instrument X" costs a log lookup
+ * plus the rows it returns. Rows are in id order, so that is also (date, id) order. The index
+ * adds roughly 40 bytes per entry on top of the columns; aggregates still scan the columns and
+ * per-day and per-month totals come from {@link TransactionBuckets}.
+ */
+@Repository
+@Timed("wallet.repository")
+@Profile("columnar")
+public class ColumnarTransactionRepository implements TransactionRepository {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte NO_TYPE = -1;
+    private static final byte DELETED = -2;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    // Rows per fork-join leaf: big enough to amortize a task, small enough to balance cores
+    private static final int AGGREGATE_LEAF_ROWS = 1 << 16;
+
+    private final Object writeLock = new Object();
+    private final StampedLock rowLock = new StampedLock();
+    private final TransactionStatsAccumulator stats = new TransactionStatsAccumulator();
+    private final TransactionBuckets buckets = new TransactionBuckets();
+    // (epoch day, row) packed by dateKey; byDate holds dated rows only, byInstrument also undated ones
+    private final NavigableSet<Long> byDate = new ConcurrentSkipListSet<>();
+    private final Map<Long, NavigableSet<Long>> byInstrument = new ConcurrentHashMap<>();
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+    private volatile int size;
+    private volatile int deleted;
+    private long nextId = 1;
+
+    private static final class Columns {
+        private final long[] ids;
+        private final long[] instrumentIds;
+        private final byte[] types;
+        private final double[] quantities;
+        private final double[] prices;
+        private final int[] epochDays;
+
+        private Columns(int capacity) {
+            this(new long[capacity], new long[capacity], new byte[capacity], new double[capacity],
+                    new double[capacity], new int[capacity]);
+        }
+
+        private Columns(long[] ids, long[] instrumentIds, byte[] types, double[] quantities, double[] prices,
+                int[] epochDays) {
+            this.ids = ids;
+            this.instrumentIds = instrumentIds;
+            this.types = types;
+            this.quantities = quantities;
+            this.prices = prices;
+            this.epochDays = epochDays;
+        }
+
+        private int capacity() {
+            return ids.length;
+        }
+
+        private Columns grow() {
+            int capacity = capacity() * 2;
+            return new Columns(
+                    Arrays.copyOf(ids, capacity),
+                    Arrays.copyOf(instrumentIds, capacity),
+                    Arrays.copyOf(types, capacity),
+                    Arrays.copyOf(quantities, capacity),
+                    Arrays.copyOf(prices, capacity),
+                    Arrays.copyOf(epochDays, capacity));
+        }
+
+        private void write(int row, Transaction transaction) {
+            ids[row] = transaction.id();
+            instrumentIds[row] = transaction.instrumentId() != null ? transaction.instrumentId() : NO_VALUE;
+            types[row] = transaction.type() != null ? (byte) transaction.type().ordinal() : NO_TYPE;
+            quantities[row] = transaction.quantity() != null ? transaction.quantity() : Double.NaN;
+            prices[row] = transaction.price() != null ? transaction.price() : Double.NaN;
+            epochDays[row] = transaction.date() != null ? (int) transaction.date().toEpochDay() : NO_DATE;
+        }
+
+        private boolean isDeleted(int row) {
+            return types[row] == DELETED;
+        }
+
+        // Reads the type once: an optimistic reader may race with a delete flipping it
+        private Transaction read(int row) {
+            byte type = types[row];
+            return new Transaction(
+                    ids[row],
+                    instrumentIds[row] != NO_VALUE ? instrumentIds[row] : null,
+                    type >= 0 ? TYPES[type] : null,
+                    Double.isNaN(quantities[row]) ? null : quantities[row],
+                    Double.isNaN(prices[row]) ? null : prices[row],
+                    epochDays[row] != NO_DATE ? LocalDate.ofEpochDay(epochDays[row]) : null);
+        }
+    }
+
+    public Transaction save(Transaction transaction) {
+        Transaction newTransaction;
+        synchronized (writeLock) {
+            newTransaction = withId(nextId++, transaction);
+            int row = size;
+            ensureCapacity(row + 1);
+            columns.write(row, newTransaction);
+            size = row + 1;
+            index(row);
+        }
+        stats.add(newTransaction);
+        buckets.add(newTransaction);
+        return newTransaction;
+    }
+
+    public List<Transaction> saveAll(List<Transaction> transactions) {
+        List<Transaction> saved = new ArrayList<>(transactions.size());
+        synchronized (writeLock) {
+            int row = size;
+            ensureCapacity(row + transactions.size());
+            for (Transaction transaction : transactions) {
+                Transaction newTransaction = withId(nextId++, transaction);
+                columns.write(row++, newTransaction);
+                saved.add(newTransaction);
+            }
+            size = row;
+            for (int added = row - saved.size(); added < row; added++) {
+                index(added);
+            }
+        }
+        for (Transaction transaction : saved) {
+            stats.add(transaction);
+            buckets.add(transaction);
+        }
+        return saved;
+    }
+
+    public List<Optional<Transaction>> updateAll(List<Transaction> transactions) {
+        List<Optional<Transaction>> replaced = new ArrayList<>(transactions.size());
+        synchronized (writeLock) {
+            long stamp = rowLock.writeLock();
+            try {
+                for (Transaction transaction : transactions) {
+                    int row = transaction.id() != null ? liveRow(transaction.id()) : -1;
+                    if (row < 0) {
+                        replaced.add(Optional.empty());
+                        continue;
+                    }
+                    replaced.add(Optional.of(columns.read(row)));
+                    unindex(row);
+                    columns.write(row, transaction);
+                    index(row);
+                }
+            } finally {
+                rowLock.unlockWrite(stamp);
+            }
+        }
+        for (int i = 0; i < transactions.size(); i++) {
+            replaced.get(i).ifPresent(previous -> {
+                stats.remove(previous);
+                buckets.remove(previous);
+            });
+        }
+        for (int i = 0; i < transactions.size(); i++) {
+            if (replaced.get(i).isPresent()) {
+                stats.add(transactions.get(i));
+                buckets.add(transactions.get(i));
+            }
+        }
+        return replaced;
+    }
+
+    public List<Optional<Transaction>> deleteAll(List<Long> ids) {
+        List<Optional<Transaction>> removed = new ArrayList<>(ids.size());
+        synchronized (writeLock) {
+            long stamp = rowLock.writeLock();
+            try {
+                for (Long id : ids) {
+                    int row = id != null ? liveRow(id) : -1;
+                    if (row < 0) {
+                        removed.add(Optional.empty());
+                        continue;
+                    }
+                    removed.add(Optional.of(columns.read(row)));
+                    unindex(row);
+                    columns.types[row] = DELETED;
+                    deleted++;
+                }
+            } finally {
+                rowLock.unlockWrite(stamp);
+            }
+        }
+        removed.forEach(previous -> previous.ifPresent(transaction -> {
+            stats.remove(transaction);
+            buckets.remove(transaction);
+        }));
+        return removed;
+    }
+
+    public List<Transaction> findAll() {
+        return List.copyOf(findPage(null, Integer.MAX_VALUE));
+    }
+
+    public List<Transaction> findPage(Long afterId, int limit) {
+        return readConsistent(() -> readPage(afterId, limit));
+    }
+
+    public List<Transaction> findByDate(Long instrumentId, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return List.of();
+        }
+        NavigableSet<Long> keys = instrumentId != null ? byInstrument.get(instrumentId) : byDate;
+        if (keys == null) {
+            return List.of();
+        }
+        NavigableSet<Long> range = keys.subSet(
+                dateKey(from != null ? (int) from.toEpochDay() : NO_DATE + 1, 0), true,
+                dateKey(to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE, Integer.MAX_VALUE), true);
+        return readConsistent(() -> readRows(range, false));
+    }
+
+    public List<Transaction> findByInstrument(long instrumentId) {
+        NavigableSet<Long> keys = byInstrument.get(instrumentId);
+        return keys != null ? readConsistent(() -> readRows(keys, true)) : List.of();
+    }
+
+    public AggregateTable aggregate(GroupBy groupBy, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return new AggregateTable();
+        }
+        int fromDay = from != null ? (int) from.toEpochDay() : NO_DATE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        boolean anyDate = from == null && to == null;
+        return readConsistent(() -> {
+            int rows = size;
+            Columns snapshot = columns;
+            return ForkJoinPool.commonPool().invoke(
+                    new AggregateTask(snapshot, groupBy, anyDate, fromDay, toDay, 0, rows));
+        });
+    }
+
+    /** Splits a row range in halves down to {@link #AGGREGATE_LEAF_ROWS}; leaves read the columns directly. */
+    // ForkJoinTask is Serializable, but these tasks never leave the pool
+    @SuppressWarnings("serial")
+    private static final class AggregateTask extends RecursiveTask<AggregateTable> {
+        private final Columns columns;
+        private final GroupBy groupBy;
+        private final boolean anyDate;
+        private final int fromDay;
+        private final int toDay;
+        private final int from;
+        private final int to;
+
+        private AggregateTask(Columns columns, GroupBy groupBy, boolean anyDate, int fromDay, int toDay, int from,
+                int to) {
+            this.columns = columns;
+            this.groupBy = groupBy;
+            this.anyDate = anyDate;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected AggregateTable compute() {
+            if (to - from <= AGGREGATE_LEAF_ROWS) {
+                return aggregateRows();
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(columns, groupBy, anyDate, fromDay, toDay, from, middle);
+            left.fork();
+            AggregateTable right = new AggregateTask(columns, groupBy, anyDate, fromDay, toDay, middle, to).compute();
+            return AggregateTable.merged(left.join(), right);
+        }
+
+        private AggregateTable aggregateRows() {
+            AggregateTable table = new AggregateTable();
+            for (int row = from; row < to; row++) {
+                byte type = columns.types[row];
+                int day = columns.epochDays[row];
+                if (type == DELETED || !anyDate && (day == NO_DATE || day < fromDay || day > toDay)) {
+                    continue;
+                }
+                long key = switch (groupBy) {
+                    case INSTRUMENT, MARKET -> columns.instrumentIds[row] != NO_VALUE ? columns.instrumentIds[row]
+                            : TransactionAggregation.NO_KEY;
+                    case TYPE -> type >= 0 ? type : TransactionAggregation.NO_KEY;
+                    case MONTH -> day != NO_DATE ? BucketInterval.MONTH.key(LocalDate.ofEpochDay(day))
+                            : TransactionAggregation.NO_KEY;
+                };
+                if (key == TransactionAggregation.NO_KEY) {
+                    continue;
+                }
+                double quantity = columns.quantities[row];
+                double price = columns.prices[row];
+                double volume = Double.isNaN(quantity) ? 0 : quantity;
+                table.add(key, volume, Double.isNaN(price) ? 0 : volume * price);
+            }
+            return table;
+        }
+    }
+
+    public List<TransactionBucket> buckets(Long instrumentId, LocalDate from, LocalDate to, BucketInterval interval) {
+        return buckets.find(instrumentId, from, to, interval);
+    }
+
+    // Optimistic first; re-read under the read lock if an update or delete got in between
+    private <T> T readConsistent(Supplier<T> reader) {
+        long stamp = rowLock.tryOptimisticRead();
+        T result = reader.get();
+        if (!rowLock.validate(stamp)) {
+            stamp = rowLock.readLock();
+            try {
+                result = reader.get();
+            } finally {
+                rowLock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    // Keys past the size read here belong to appends published after it and are skipped
+    private List<Transaction> readRows(Collection<Long> keys, boolean idOrder) {
+        int rows = size;
+        Columns snapshot = columns;
+        int[] matches = new int[16];
+        int count = 0;
+        for (long key : keys) {
+            int row = (int) key;
+            if (row < rows && !snapshot.isDeleted(row)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = row;
+            }
+        }
+        if (idOrder) {
+            Arrays.sort(matches, 0, count);
+        }
+        List<Transaction> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(snapshot.read(matches[i]));
+        }
+        return result;
+    }
+
+    private List<Transaction> readPage(Long afterId, int limit) {
+        int rows = size;
+        Columns snapshot = columns;
+        int from = afterId == null ? 0 : firstRowAfter(snapshot.ids, rows, afterId);
+        List<Transaction> page = new ArrayList<>(Math.min(Math.max(0, rows - from), limit));
+        for (int row = from; row < rows && page.size() < limit; row++) {
+            if (!snapshot.isDeleted(row)) {
+                page.add(snapshot.read(row));
+            }
+        }
+        return page;
+    }
+
+    public TransactionStats stats() {
+        return stats.snapshot();
+    }
+
+    public long count() {
+        return size - deleted;
+    }
+
+    // Called under writeLock
+    private int liveRow(long id) {
+        int row = Arrays.binarySearch(columns.ids, 0, size, id);
+        return row >= 0 && !columns.isDeleted(row) ? row : -1;
+    }
+
+    // Called under writeLock, after the row is published; rewrites also hold rowLock
+    private void index(int row) {
+        int day = columns.epochDays[row];
+        long instrumentId = columns.instrumentIds[row];
+        long key = dateKey(day, row);
+        if (day != NO_DATE) {
+            byDate.add(key);
+        }
+        if (instrumentId != NO_VALUE) {
+            byInstrument.computeIfAbsent(instrumentId, id -> new ConcurrentSkipListSet<>()).add(key);
+        }
+    }
+
+    // Called under writeLock and rowLock, before the row is rewritten or marked deleted
+    private void unindex(int row) {
+        int day = columns.epochDays[row];
+        long instrumentId = columns.instrumentIds[row];
+        long key = dateKey(day, row);
+        byDate.remove(key);
+        if (instrumentId != NO_VALUE) {
+            NavigableSet<Long> keys = byInstrument.get(instrumentId);
+            if (keys != null) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    // Day in the high half, row in the low half: keys sort by day, then by row and so by id
+    private static long dateKey(int day, int row) {
+        return (long) day << 32 | row;
+    }
+
+    // Called under writeLock; the grown columns are published before size moves past them
+    private void ensureCapacity(int rows) {
+        Columns current = columns;
+        while (current.capacity() < rows) {
+            current = current.grow();
+        }
+        columns = current;
+    }
+
+    private static Transaction withId(long id, Transaction transaction) {
+        return new Transaction(
+                id,
+                transaction.instrumentId(),
+                transaction.type(),
+                transaction.quantity(),
+                transaction.price(),
+                transaction.date());
+    }
+
+    private static int firstRowAfter(long[] ids, int rows, long afterId) {
+        int index = Arrays.binarySearch(ids, 0, rows, afterId);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
@@ -0,0 +1,188 @@
+package com.sp94dev.wallet.transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import com.sp94dev.wallet.transaction.dto.TransactionBucket;
+import com.sp94dev.wallet.transaction.dto.TransactionStats;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transaction store that survives restarts: every write is appended to a
+ * {@link TransactionLog} and acknowledged only once it is on disk, while reads are served by
+ * an in-memory copy rebuilt from the log at startup. Enabled with the {@code durable} Spring
+ * profile and configured under {@code wallet.transactions.log}.
+ * <p>
+ * Every write holds the shared side of {@code writers} from its append until the in-memory
+ * copy reflects it; compaction takes the exclusive side once as a fence, so it never judges
+ * a record against memory that has not caught up yet. Updates and deletes are serialized,
+ * so the existence check and the logged change cannot interleave with another change.
+ */
+@Slf4j
+@Repository
+@Timed("wallet.repository")
+@Profile("durable")
+public class DurableTransactionRepository implements TransactionRepository {
+    private final InMemoryTransactionRepository memory = new InMemoryTransactionRepository();
+    private final TransactionLog transactionLog;
+    private final ScheduledExecutorService compactor;
+    private final long compactionIntervalMillis;
+    private final ReadWriteLock writers = new ReentrantReadWriteLock();
+    private final Object changeLock = new Object();
+
+    public DurableTransactionRepository(TransactionLogProperties properties) {
+        Path directory = Path.of(properties.directory());
+        long started = System.nanoTime();
+        try {
+            this.transactionLog = TransactionLog.open(directory, (int) properties.segmentSize().toBytes(),
+                    properties.fsync(), memory::restore, id -> memory.deleteAll(List.of(id)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open transaction log in " + directory, e);
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        long rows = memory.count();
+        log.info("Replayed {} transactions from {} in {} ms ({} rows/s)", rows, directory,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                elapsedNanos > 0 ? (long) (rows * 1e9 / elapsedNanos) : rows);
+
+        this.compactionIntervalMillis = properties.compactionInterval().toMillis();
+        this.compactor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("transaction-log-compactor").factory());
+    }
+
+    // Scheduled once construction is done, so the compactor never sees a half-built repository
+    @PostConstruct
+    public void startCompaction() {
+        compactor.scheduleWithFixedDelay(this::compact, compactionIntervalMillis, compactionIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public Transaction save(Transaction transaction) {
+        return saveAll(List.of(transaction)).getFirst();
+    }
+
+    public List<Transaction> saveAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+        Lock shared = writers.readLock();
+        shared.lock();
+        try {
+            List<Transaction> saved = transactionLog.append(transactions);
+            memory.restore(saved);
+            return saved;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    public List<Optional<Transaction>> updateAll(List<Transaction> transactions) {
+        synchronized (changeLock) {
+            List<Transaction> known = transactions.stream()
+                    .filter(transaction -> transaction.id() != null && memory.findById(transaction.id()) != null)
+                    .toList();
+            Lock shared = writers.readLock();
+            shared.lock();
+            try {
+                if (!known.isEmpty()) {
+                    transactionLog.appendUpdates(known);
+                }
+                return memory.updateAll(transactions);
+            } finally {
+                shared.unlock();
+            }
+        }
+    }
+
+    public List<Optional<Transaction>> deleteAll(List<Long> ids) {
+        synchronized (changeLock) {
+            List<Long> known = ids.stream()
+                    .filter(id -> id != null && memory.findById(id) != null)
+                    .toList();
+            Lock shared = writers.readLock();
+            shared.lock();
+            try {
+                if (!known.isEmpty()) {
+                    transactionLog.appendDeletes(known);
+                }
+                return memory.deleteAll(ids);
+            } finally {
+                shared.unlock();
+            }
+        }
+    }
+
+    public List<Transaction> findAll() {
+        return memory.findAll();
+    }
+
+    public List<Transaction> findPage(Long afterId, int limit) {
+        return memory.findPage(afterId, limit);
+    }
+
+    public List<Transaction> findByDate(Long instrumentId, LocalDate from, LocalDate to) {
+        return memory.findByDate(instrumentId, from, to);
+    }
+
+    public List<Transaction> findByInstrument(long instrumentId) {
+        return memory.findByInstrument(instrumentId);
+    }
+
+    public List<TransactionBucket> buckets(Long instrumentId, LocalDate from, LocalDate to, BucketInterval interval) {
+        return memory.buckets(instrumentId, from, to, interval);
+    }
+
+    public AggregateTable aggregate(GroupBy groupBy, LocalDate from, LocalDate to) {
+        return memory.aggregate(groupBy, from, to);
+    }
+
+    public TransactionStats stats() {
+        return memory.stats();
+    }
+
+    public long count() {
+        return memory.count();
+    }
+
+    // Only worth a rewrite once more than one sealed segment has piled up next to the active one
+    void compact() {
+        try {
+            if (transactionLog.segmentCount() > 2) {
+                long dropped = transactionLog.compact(this::awaitWriters,
+                        transaction -> transaction.equals(memory.findById(transaction.id())));
+                log.info("Compacted transaction log, dropped {} superseded records", dropped);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Transaction log compaction failed", e);
+        }
+    }
+
+    private void awaitWriters() {
+        Lock exclusive = writers.writeLock();
+        exclusive.lock();
+        exclusive.unlock();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        compactor.shutdownNow();
+        transactionLog.close();
+    }
+}
@@ -0,0 +1,6 @@
+package com.sp94dev.wallet.transaction;
+
+/** Dimension of an ad-hoc transaction aggregation. */
+public enum GroupBy {
+    INSTRUMENT, TYPE, MONTH, MARKET
+}
@@ -1,30 +1,162 @@
 package com.sp94dev.wallet.transaction;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import com.sp94dev.wallet.transaction.dto.TransactionBucket;
+import com.sp94dev.wallet.transaction.dto.TransactionStats;
+
+import io.micrometer.core.annotation.Timed;
+
 @Repository
+@Timed("wallet.repository")
+@Profile("!columnar & !durable")
 public class InMemoryTransactionRepository implements TransactionRepository {
-    private final Map<Long, Transaction> storage = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, Transaction> storage = new ConcurrentSkipListMap<>();
     private final AtomicLong idCounter = new AtomicLong(1);
+    private final TransactionStatsAccumulator stats = new TransactionStatsAccumulator();
+    private final TransactionDateIndex dateIndex = new TransactionDateIndex();
+    private final TransactionBuckets buckets = new TransactionBuckets();
 
     public Transaction save(Transaction transaction) {
-        Long id = idCounter.getAndIncrement();
-        Transaction newTransaction = new Transaction(
+        Transaction newTransaction = withId(idCounter.getAndIncrement(), transaction);
+        storage.put(newTransaction.id(), newTransaction);
+        stats.add(newTransaction);
+        indexAdd(newTransaction);
+        return newTransaction;
+    }
+
+    public List<Transaction> saveAll(List<Transaction> transactions) {
+        long firstId = idCounter.getAndAdd(transactions.size());
+        List<Transaction> saved = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction newTransaction = withId(firstId + i, transactions.get(i));
+            storage.put(newTransaction.id(), newTransaction);
+            stats.add(newTransaction);
+            indexAdd(newTransaction);
+            saved.add(newTransaction);
+        }
+        return saved;
+    }
+
+    public List<Optional<Transaction>> updateAll(List<Transaction> transactions) {
+        List<Optional<Transaction>> replaced = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            Transaction previous = transaction.id() != null ? storage.replace(transaction.id(), transaction) : null;
+            if (previous != null) {
+                stats.remove(previous);
+                stats.add(transaction);
+                indexRemove(previous);
+                indexAdd(transaction);
+            }
+            replaced.add(Optional.ofNullable(previous));
+        }
+        return replaced;
+    }
+
+    public List<Optional<Transaction>> deleteAll(List<Long> ids) {
+        List<Optional<Transaction>> removed = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Transaction previous = id != null ? storage.remove(id) : null;
+            if (previous != null) {
+                stats.remove(previous);
+                indexRemove(previous);
+            }
+            removed.add(Optional.ofNullable(previous));
+        }
+        return removed;
+    }
+
+    public List<Transaction> findAll() {
+        return List.copyOf(storage.values());
+    }
+
+    public List<Transaction> findPage(Long afterId, int limit) {
+        NavigableMap<Long, Transaction> tail = afterId == null ? storage : storage.tailMap(afterId, false);
+        List<Transaction> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Transaction transaction : tail.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(transaction);
+        }
+        return page;
+    }
+
+    public List<Transaction> findByDate(Long instrumentId, LocalDate from, LocalDate to) {
+        return dateIndex.find(instrumentId, from, to);
+    }
+
+    public List<Transaction> findByInstrument(long instrumentId) {
+        return dateIndex.findByInstrument(instrumentId);
+    }
+
+    public List<TransactionBucket> buckets(Long instrumentId, LocalDate from, LocalDate to, BucketInterval interval) {
+        return buckets.find(instrumentId, from, to, interval);
+    }
+
+    public AggregateTable aggregate(GroupBy groupBy, LocalDate from, LocalDate to) {
+        return TransactionAggregation.aggregate(
+                from == null && to == null ? storage.values() : dateIndex.find(null, from, to), groupBy);
+    }
+
+    public TransactionStats stats() {
+        return stats.snapshot();
+    }
+
+    public long count() {
+        return stats.count();
+    }
+
+    Transaction findById(long id) {
+        return storage.get(id);
+    }
+
+    /**
+     * Puts transactions that already carry ids, e.g. replayed from {@link TransactionLog}.
+     * A repeated id replaces the previous row, and the id counter moves past every id seen.
+     */
+    void restore(List<Transaction> transactions) {
+        long maxId = 0;
+        for (Transaction transaction : transactions) {
+            Transaction previous = storage.put(transaction.id(), transaction);
+            if (previous != null) {
+                stats.remove(previous);
+                indexRemove(previous);
+            }
+            indexAdd(transaction);
+            maxId = Math.max(maxId, transaction.id());
+        }
+        stats.addAll(transactions);
+        long nextId = maxId + 1;
+        idCounter.accumulateAndGet(nextId, Math::max);
+    }
+
+    private void indexAdd(Transaction transaction) {
+        dateIndex.add(transaction);
+        buckets.add(transaction);
+    }
+
+    private void indexRemove(Transaction transaction) {
+        dateIndex.remove(transaction);
+        buckets.remove(transaction);
+    }
+
+    private static Transaction withId(Long id, Transaction transaction) {
+        return new Transaction(
                 id,
                 transaction.instrumentId(),
                 transaction.type(),
                 transaction.quantity(),
                 transaction.price(),
                 transaction.date());
-        storage.put(id, newTransaction);
-        return newTransaction;
-    }
-
-    public List<Transaction> findAll() {
-        return List.copyOf(storage.values());
     }
 }
@@ -0,0 +1,100 @@
+package com.sp94dev.wallet.transaction;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring after the LMAX Disruptor. Producers claim a
+ * range of sequences with one CAS on the claim cursor, fill their slots and mark each slot
+ * published by storing its sequence in it; the consumer takes published slots in sequence
+ * order and frees them by advancing its cursor. A claim that would overrun slots the
+ * consumer has not freed fails instead of waiting, so a full ring turns into backpressure.
+ * <p>
+ * Sequences start at 1; a slot's published sequence starts at 0, which no claim can match.
+ */
+final class IngestRingBuffer<T> {
+    private final Object[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    // written by the consumer only
+    private volatile long consumed;
+
+    IngestRingBuffer(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /** Publishes all items or none; returns the sequence of the last one, or -1 when they do not fit. */
+    long tryPublish(List<? extends T> items) {
+        int count = items.size();
+        if (count > slots.length) {
+            return -1;
+        }
+        long last;
+        do {
+            long current = claimed.get();
+            last = current + count;
+            if (last - consumed > slots.length) {
+                return -1;
+            }
+            if (claimed.compareAndSet(current, last)) {
+                break;
+            }
+        } while (true);
+        long first = last - count + 1;
+        for (int i = 0; i < count; i++) {
+            long sequence = first + i;
+            int slot = (int) sequence & mask;
+            slots[slot] = items.get(i);
+            published.set(slot, sequence);
+        }
+        return last;
+    }
+
+    /**
+     * Consumer only: appends up to {@code max} published items to {@code batch}, in sequence
+     * order, stopping at the first slot still being filled. The slots stay taken until
+     * {@link #release(int)}.
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(List<T> batch, int max) {
+        long next = consumed + 1;
+        int count = 0;
+        while (count < max) {
+            long sequence = next + count;
+            int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence) {
+                break;
+            }
+            batch.add((T) slots[slot]);
+            slots[slot] = null;
+            count++;
+        }
+        return count;
+    }
+
+    /** Consumer only: frees the next {@code count} slots for producers. */
+    void release(int count) {
+        consumed += count;
+    }
+
+    /** Sequence of the last claimed slot. */
+    long claimed() {
+        return claimed.get();
+    }
+
+    /** Sequence of the last released slot. */
+    long consumed() {
+        return consumed;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,13 @@
+package com.sp94dev.wallet.transaction;
+
+/**
+ * A batch write failed after part of it was stored and the stored part could not be removed
+ * again. Retrying such a batch would store those transactions twice.
+ */
+public class PartialWriteException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    public PartialWriteException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
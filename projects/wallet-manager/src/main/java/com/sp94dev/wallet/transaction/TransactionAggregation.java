@@ -0,0 +1,42 @@
+package com.sp94dev.wallet.transaction;
+
+import java.util.Collection;
+
+/**
+ * Group keys for ad-hoc aggregations and the object-store path, which folds a parallel
+ * stream over the store's spliterator: the common fork-join pool splits it, every split
+ * fills its own {@link AggregateTable} and tables merge as splits join. The columnar store
+ * runs its own fork-join task over row ranges instead.
+ */
+final class TransactionAggregation {
+    /** Key of a row missing the grouping field; such rows are left out. */
+    static final long NO_KEY = Long.MIN_VALUE;
+
+    private TransactionAggregation() {
+    }
+
+    // MARKET is keyed by instrument; the caller folds instruments into markets
+    static long key(GroupBy groupBy, Transaction transaction) {
+        return switch (groupBy) {
+            case INSTRUMENT, MARKET -> transaction.instrumentId() != null ? transaction.instrumentId() : NO_KEY;
+            case TYPE -> transaction.type() != null ? transaction.type().ordinal() : NO_KEY;
+            case MONTH -> transaction.date() != null ? BucketInterval.MONTH.key(transaction.date()) : NO_KEY;
+        };
+    }
+
+    static AggregateTable aggregate(Collection<Transaction> transactions, GroupBy groupBy) {
+        return transactions.parallelStream().collect(
+                AggregateTable::new,
+                (table, transaction) -> add(table, groupBy, transaction),
+                AggregateTable::merge);
+    }
+
+    private static void add(AggregateTable table, GroupBy groupBy, Transaction transaction) {
+        long key = key(groupBy, transaction);
+        if (key == NO_KEY) {
+            return;
+        }
+        double quantity = transaction.quantity() != null ? transaction.quantity() : 0;
+        table.add(key, quantity, transaction.price() != null ? quantity * transaction.price() : 0);
+    }
+}
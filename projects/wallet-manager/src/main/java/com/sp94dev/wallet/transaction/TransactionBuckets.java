@@ -0,0 +1,85 @@
+package com.sp94dev.wallet.transaction;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.sp94dev.wallet.transaction.dto.TransactionBucket;
+
+/**
+ * Daily and monthly totals (count, volume, value) maintained on every write, overall and per
+ * instrument, so a time series over any range is a {@code subMap} over at most one entry per
+ * bucket instead of a scan of the transactions. Buckets hold immutable totals replaced with
+ * {@code merge}, so a reader never sees half of an update; emptied buckets are dropped.
+ * Transactions without a date are not bucketed.
+ */
+final class TransactionBuckets {
+    private final Map<BucketInterval, Series> series = new EnumMap<>(BucketInterval.class);
+
+    private record Totals(long count, double volume, double value) {
+        // null drops the bucket once its last transaction is removed
+        static Totals sum(Totals a, Totals b) {
+            long count = a.count + b.count;
+            return count == 0 ? null : new Totals(count, a.volume + b.volume, a.value + b.value);
+        }
+    }
+
+    private static final class Series {
+        private final NavigableMap<Long, Totals> all = new ConcurrentSkipListMap<>();
+        private final Map<Long, NavigableMap<Long, Totals>> byInstrument = new ConcurrentHashMap<>();
+    }
+
+    TransactionBuckets() {
+        for (BucketInterval interval : BucketInterval.values()) {
+            series.put(interval, new Series());
+        }
+    }
+
+    void add(Transaction transaction) {
+        apply(transaction, 1);
+    }
+
+    void remove(Transaction transaction) {
+        apply(transaction, -1);
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        if (transaction.date() == null) {
+            return;
+        }
+        double quantity = transaction.quantity() != null ? transaction.quantity() : 0;
+        double value = transaction.price() != null ? quantity * transaction.price() : 0;
+        Totals delta = new Totals(sign, sign * quantity, sign * value);
+        series.forEach((interval, buckets) -> {
+            long key = interval.key(transaction.date());
+            buckets.all.merge(key, delta, Totals::sum);
+            if (transaction.instrumentId() != null) {
+                buckets.byInstrument.computeIfAbsent(transaction.instrumentId(), id -> new ConcurrentSkipListMap<>())
+                        .merge(key, delta, Totals::sum);
+            }
+        });
+    }
+
+    /**
+     * Non-empty buckets overlapping [from, to], either bound optional, in date order; bounds
+     * are widened to whole buckets.
+     */
+    List<TransactionBucket> find(Long instrumentId, LocalDate from, LocalDate to, BucketInterval interval) {
+        Series buckets = series.get(interval);
+        NavigableMap<Long, Totals> totals = instrumentId == null ? buckets.all : buckets.byInstrument.get(instrumentId);
+        if (totals == null || from != null && to != null && from.isAfter(to)) {
+            return List.of();
+        }
+        long lower = from != null ? interval.key(from) : Long.MIN_VALUE;
+        long upper = to != null ? interval.key(to) : Long.MAX_VALUE;
+        List<TransactionBucket> result = new ArrayList<>();
+        totals.subMap(lower, true, upper, true).forEach((key, bucket) -> result.add(
+                new TransactionBucket(interval.start(key), bucket.count(), bucket.volume(), bucket.value())));
+        return result;
+    }
+}
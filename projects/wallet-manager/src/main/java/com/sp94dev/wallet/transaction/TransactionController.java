@@ -1,7 +1,12 @@
 package com.sp94dev.wallet.transaction;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,15 +15,37 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.sp94dev.wallet.batch.BatchRequestReader;
+import com.sp94dev.wallet.batch.dto.BatchItemResult;
+import com.sp94dev.wallet.transaction.dto.ImportResult;
+import com.sp94dev.wallet.transaction.dto.IngestAck;
+import com.sp94dev.wallet.transaction.dto.IngestStatus;
+import com.sp94dev.wallet.transaction.dto.TransactionAggregate;
+import com.sp94dev.wallet.transaction.dto.TransactionBucket;
 import com.sp94dev.wallet.transaction.dto.TransactionResponse;
+import com.sp94dev.wallet.transaction.dto.TransactionStats;
+import com.sp94dev.wallet.transaction.importer.ImportFailedException;
+import com.sp94dev.wallet.transaction.importer.TransactionImportService;
+
+import tools.jackson.databind.json.JsonMapper;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -27,17 +54,134 @@ import com.sp94dev.wallet.transaction.dto.TransactionResponse;
 @Tag(name = "Transactions", description = "Investment transactions management (buy/sell)")
 public class TransactionController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TransactionService transactionService;
+    private final TransactionImportService transactionImportService;
+    private final BatchRequestReader batchRequestReader;
+    private final JsonMapper jsonMapper;
+    private final TransactionIngestPipeline ingestPipeline;
 
     @GetMapping
-    @Operation(summary = "Get list of transactions", description = "Returns a list of all recorded buy/sell transactions")
-    public ResponseEntity<List<TransactionResponse>> getAll() {
-        log.info("Get all transactions");
-        return ResponseEntity.ok(transactionService.getAll().stream()
+    @Operation(summary = "Get list of transactions", description = "Returns recorded buy/sell transactions ordered by id. "
+            + "With limit set, returns one keyset page and the cursor of the next one in the X-Next-Cursor header")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transactions, or one page of them"),
+            @ApiResponse(responseCode = "400", description = "Limit outside 1-" + MAX_PAGE_SIZE)
+    })
+    public ResponseEntity<List<TransactionResponse>> getAll(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Get all transactions");
+        if (limit == null) {
+            return ResponseEntity.ok(transactionService.getAll().stream()
+                    .map(TransactionResponse::from)
+                    .toList());
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.warn("Rejected transaction page with limit {}", limit);
+            return ResponseEntity.badRequest().build();
+        }
+        // one more than asked for, so a full last page does not advertise an empty next one
+        List<Transaction> page = transactionService.getPage(after, limit + 1);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getLast().id()));
+        }
+        return response.body(page.stream()
+                .map(TransactionResponse::from)
+                .toList());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream transactions as NDJSON", description = "Writes one transaction per line while reading the store page by page")
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(required = false) Long after) {
+        log.debug("Stream all transactions");
+        StreamingResponseBody body = out -> {
+            Long cursor = after;
+            List<Transaction> page;
+            do {
+                page = transactionService.getPage(cursor, MAX_PAGE_SIZE + 1);
+                for (Transaction transaction : page.subList(0, Math.min(page.size(), MAX_PAGE_SIZE))) {
+                    out.write(jsonMapper.writeValueAsBytes(TransactionResponse.from(transaction)));
+                    out.write('\n');
+                    cursor = transaction.id();
+                }
+                out.flush();
+            } while (page.size() > MAX_PAGE_SIZE);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/by-date")
+    @Operation(summary = "Get transactions in a date range", description = "Inclusive range, either bound optional, "
+            + "optionally for one instrument; ordered by date then id")
+    public ResponseEntity<List<TransactionResponse>> getByDate(
+            @RequestParam(required = false) Long instrumentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+        log.debug("Get transactions by date");
+        return ResponseEntity.ok(transactionService.getByDate(instrumentId, from, to).stream()
                 .map(TransactionResponse::from)
                 .toList());
     }
 
+    @GetMapping("/buckets")
+    @Operation(summary = "Get daily or monthly transaction totals", description = "Count, volume and value per DAY or "
+            + "MONTH over an inclusive date range, optionally for one instrument; empty buckets are omitted")
+    public ResponseEntity<List<TransactionBucket>> getBuckets(
+            @RequestParam(required = false) Long instrumentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") BucketInterval interval) {
+        log.debug("Get transaction buckets");
+        return ResponseEntity.ok(transactionService.getBuckets(instrumentId, from, to, interval));
+    }
+
+    @GetMapping("/aggregate")
+    @Operation(summary = "Aggregate transactions by a dimension", description = "Count, volume and value per INSTRUMENT, "
+            + "TYPE, MONTH or MARKET over an optional inclusive date range, computed in parallel over the whole store")
+    public ResponseEntity<List<TransactionAggregate>> aggregate(
+            @RequestParam(defaultValue = "INSTRUMENT") GroupBy groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+        log.debug("Aggregate transactions by {}", groupBy);
+        return ResponseEntity.ok(transactionService.aggregate(groupBy, from, to));
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get transaction statistics", description = "Returns counts by type and total value by instrument")
+    public ResponseEntity<TransactionStats> getStats() {
+        return ResponseEntity.ok(transactionService.getStats());
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import XTB CSV export", description = "Streams the uploaded file in batches of 10k rows, "
+            + "each stored on its own; closed positions become BUY + SELL. A failed import can leave earlier batches "
+            + "imported, so re-sending the whole file would import them twice")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished, see counters for rejected rows"),
+            @ApiResponse(responseCode = "400", description = "CSV header is missing required columns, nothing imported"),
+            @ApiResponse(responseCode = "500", description = "Storing a batch failed; the counters cover the rows "
+                    + "imported before it")
+    })
+    public ResponseEntity<ImportResult> importXtb(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("Import XTB file {}", file.getOriginalFilename());
+        try (InputStream csv = file.getInputStream()) {
+            return importCsv(csv);
+        }
+    }
+
+    @PostMapping(path = "/import", consumes = "text/csv")
+    @Operation(summary = "Import XTB CSV sent as the raw request body", description = "Same as the file upload, "
+            + "including the 400 and 500 responses")
+    public ResponseEntity<ImportResult> importXtbBody(InputStream csv) throws IOException {
+        log.info("Import XTB request body");
+        return importCsv(csv);
+    }
+
     @PostMapping
     @Operation(summary = "Add new transaction")
     @ApiResponses({
@@ -45,7 +189,7 @@ public class TransactionController {
             @ApiResponse(responseCode = "400", description = "Invalid input data")
     })
     public ResponseEntity<TransactionResponse> createTransaction(@RequestBody Transaction transaction) {
-        log.info("Create transaction");
+        log.debug("Create transaction");
         Transaction created = transactionService.create(transaction);
         TransactionResponse response = TransactionResponse.from(created);
 
@@ -56,4 +200,188 @@ public class TransactionController {
 
         return ResponseEntity.created(location).body(response);
     }
+
+    @PostMapping(path = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @Operation(summary = "Add many transactions", description = "Body is a JSON array or NDJSON; ids come from one range "
+            + "reservation. Returns one result per item, in request order")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch applied, see per-item status"),
+            @ApiResponse(responseCode = "400", description = "Malformed body or too many items")
+    })
+    public ResponseEntity<List<BatchItemResult<TransactionResponse>>> createTransactions(InputStream body) {
+        log.debug("Create transactions batch");
+        try {
+            List<Transaction> created = transactionService.createAll(batchRequestReader.read(body, Transaction.class));
+            List<BatchItemResult<TransactionResponse>> results = new ArrayList<>(created.size());
+            for (int i = 0; i < created.size(); i++) {
+                results.add(BatchItemResult.ok(i, 201, TransactionResponse.from(created.get(i))));
+            }
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected transaction batch: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping(path = "/ingest", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @Operation(summary = "Accept transactions for write-behind", description = "Body is one transaction, a JSON array or "
+            + "NDJSON. Answers once they are buffered; a background writer applies them in batches. Poll GET /ingest "
+            + "until appliedSequence reaches the returned sequence to read them back. Enabled by "
+            + "wallet.transactions.ingest.enabled")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Transactions buffered"),
+            @ApiResponse(responseCode = "400", description = "Malformed body or too many items"),
+            @ApiResponse(responseCode = "404", description = "Write-behind ingestion is disabled"),
+            @ApiResponse(responseCode = "429", description = "Buffer full, retry later"),
+            @ApiResponse(responseCode = "503", description = "Shutting down")
+    })
+    public ResponseEntity<IngestAck> ingestTransactions(InputStream body) {
+        if (!ingestPipeline.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            List<Transaction> transactions = batchRequestReader.read(body, Transaction.class);
+            long sequence = ingestPipeline.offer(transactions);
+            if (sequence < 0) {
+                log.debug("Ingest buffer full, rejected {} transactions", transactions.size());
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build();
+            }
+            log.debug("Ingested {} transactions up to sequence {}", transactions.size(), sequence);
+            return ResponseEntity.accepted().body(new IngestAck(transactions.size(), sequence));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected transaction ingest: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Rejected transaction ingest: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/ingest")
+    @Operation(summary = "Get write-behind ingestion progress", description = "Accepted and applied sequences, buffer use "
+            + "and counters of rejected and dropped transactions")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Current status"),
+            @ApiResponse(responseCode = "404", description = "Write-behind ingestion is disabled")
+    })
+    public ResponseEntity<IngestStatus> getIngestStatus() {
+        if (!ingestPipeline.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ingestPipeline.status());
+    }
+
+    @GetMapping("/ingest/parked")
+    @Operation(summary = "Get parked ingested transactions", description = "Transactions that failed to apply after "
+            + "every retry, oldest first; they stay here until replayed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Parked transactions"),
+            @ApiResponse(responseCode = "404", description = "Write-behind ingestion is disabled")
+    })
+    public ResponseEntity<List<TransactionResponse>> getParkedTransactions() {
+        if (!ingestPipeline.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ingestPipeline.parked().stream()
+                .map(TransactionResponse::from)
+                .toList());
+    }
+
+    @PostMapping("/ingest/parked/replay")
+    @Operation(summary = "Replay parked ingested transactions", description = "Offers every parked transaction to the "
+            + "write-behind buffer again, all or none; poll GET /ingest as for a regular ingest")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Parked transactions buffered again"),
+            @ApiResponse(responseCode = "404", description = "Write-behind ingestion is disabled"),
+            @ApiResponse(responseCode = "429", description = "Buffer full, retry later"),
+            @ApiResponse(responseCode = "503", description = "Shutting down")
+    })
+    public ResponseEntity<IngestAck> replayParkedTransactions() {
+        if (!ingestPipeline.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            IngestAck ack = ingestPipeline.replayParked();
+            if (ack.sequence() < 0) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build();
+            }
+            log.debug("Replaying {} parked transactions up to sequence {}", ack.accepted(), ack.sequence());
+            return ResponseEntity.accepted().body(ack);
+        } catch (IllegalStateException e) {
+            log.warn("Rejected parked transaction replay: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @PutMapping(path = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @Operation(summary = "Update many transactions", description = "Every item carries its id; unknown ids are reported as 404. "
+            + "Positions of the affected instruments are recomputed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch applied, see per-item status"),
+            @ApiResponse(responseCode = "400", description = "Malformed body or too many items")
+    })
+    public ResponseEntity<List<BatchItemResult<TransactionResponse>>> updateTransactions(InputStream body) {
+        log.debug("Update transactions batch");
+        try {
+            List<Transaction> transactions = batchRequestReader.read(body, Transaction.class);
+            List<Optional<Transaction>> replaced = transactionService.updateAll(transactions);
+            List<BatchItemResult<TransactionResponse>> results = new ArrayList<>(transactions.size());
+            for (int i = 0; i < transactions.size(); i++) {
+                Transaction transaction = transactions.get(i);
+                if (transaction.id() == null) {
+                    results.add(BatchItemResult.failed(i, 400, "Missing id"));
+                } else if (replaced.get(i).isEmpty()) {
+                    results.add(BatchItemResult.failed(i, 404, "Unknown id " + transaction.id()));
+                } else {
+                    results.add(BatchItemResult.ok(i, 200, TransactionResponse.from(transaction)));
+                }
+            }
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected transaction batch: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping(path = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @Operation(summary = "Delete many transactions", description = "Body is an array (or NDJSON) of ids; unknown ids are reported as 404")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch applied, see per-item status"),
+            @ApiResponse(responseCode = "400", description = "Malformed body or too many items")
+    })
+    public ResponseEntity<List<BatchItemResult<Long>>> deleteTransactions(InputStream body) {
+        log.debug("Delete transactions batch");
+        try {
+            List<Long> ids = batchRequestReader.read(body, Long.class);
+            List<Optional<Transaction>> removed = transactionService.deleteAll(ids);
+            List<BatchItemResult<Long>> results = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                results.add(removed.get(i).isPresent()
+                        ? BatchItemResult.ok(i, 204, ids.get(i))
+                        : BatchItemResult.failed(i, 404, "Unknown id " + ids.get(i)));
+            }
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected transaction batch: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Only the header check throws IllegalArgumentException; failures past it are wrapped
+    private ResponseEntity<ImportResult> importCsv(InputStream csv) throws IOException {
+        try {
+            return ResponseEntity.ok(transactionImportService.importXtbCsv(csv));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected XTB import: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (ImportFailedException e) {
+            log.error("XTB import failed after storing {} transactions from {} rows", e.committed().transactionsImported(),
+                    e.committed().rowsRead(), e);
+            return ResponseEntity.internalServerError().body(e.committed());
+        }
+    }
 }
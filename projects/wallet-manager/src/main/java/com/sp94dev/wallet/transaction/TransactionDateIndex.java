@@ -0,0 +1,99 @@
+package com.sp94dev.wallet.transaction;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Transactions ordered by date, overall and per instrument, used by
+ * {@link InMemoryTransactionRepository}. Keys are (epoch day, id), so a date range is one
+ * {@code subMap} and equal dates keep id order. Transactions without a date stay out of the
+ * date maps; per instrument they are kept by id on the side, so {@link #findByInstrument}
+ * returns the instrument's whole history.
+ */
+final class TransactionDateIndex {
+    private final NavigableMap<DateKey, Transaction> all = new ConcurrentSkipListMap<>();
+    private final Map<Long, NavigableMap<DateKey, Transaction>> byInstrument = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableMap<Long, Transaction>> undatedByInstrument = new ConcurrentHashMap<>();
+
+    private record DateKey(long epochDay, long id) implements Comparable<DateKey> {
+        @Override
+        public int compareTo(DateKey other) {
+            int byDay = Long.compare(epochDay, other.epochDay);
+            return byDay != 0 ? byDay : Long.compare(id, other.id);
+        }
+    }
+
+    void add(Transaction transaction) {
+        if (transaction.date() == null) {
+            if (transaction.instrumentId() != null) {
+                undatedByInstrument.compute(transaction.instrumentId(), (id, postings) -> {
+                    NavigableMap<Long, Transaction> result = postings != null ? postings : new ConcurrentSkipListMap<>();
+                    result.put(transaction.id(), transaction);
+                    return result;
+                });
+            }
+            return;
+        }
+        DateKey key = new DateKey(transaction.date().toEpochDay(), transaction.id());
+        all.put(key, transaction);
+        if (transaction.instrumentId() != null) {
+            byInstrument.compute(transaction.instrumentId(), (id, postings) -> {
+                NavigableMap<DateKey, Transaction> result = postings != null ? postings : new ConcurrentSkipListMap<>();
+                result.put(key, transaction);
+                return result;
+            });
+        }
+    }
+
+    void remove(Transaction transaction) {
+        if (transaction.date() == null) {
+            if (transaction.instrumentId() != null) {
+                undatedByInstrument.computeIfPresent(transaction.instrumentId(), (id, postings) -> {
+                    postings.remove(transaction.id(), transaction);
+                    return postings.isEmpty() ? null : postings;
+                });
+            }
+            return;
+        }
+        DateKey key = new DateKey(transaction.date().toEpochDay(), transaction.id());
+        all.remove(key, transaction);
+        if (transaction.instrumentId() != null) {
+            byInstrument.computeIfPresent(transaction.instrumentId(), (id, postings) -> {
+                postings.remove(key, transaction);
+                return postings.isEmpty() ? null : postings;
+            });
+        }
+    }
+
+    /** Transactions dated within [from, to], either bound optional, ordered by date then id. */
+    List<Transaction> find(Long instrumentId, LocalDate from, LocalDate to) {
+        NavigableMap<DateKey, Transaction> rows = instrumentId == null ? all : byInstrument.get(instrumentId);
+        if (rows == null || from != null && to != null && from.isAfter(to)) {
+            return List.of();
+        }
+        DateKey lower = new DateKey(from != null ? from.toEpochDay() : Long.MIN_VALUE, Long.MIN_VALUE);
+        DateKey upper = new DateKey(to != null ? to.toEpochDay() : Long.MAX_VALUE, Long.MAX_VALUE);
+        return List.copyOf(rows.subMap(lower, true, upper, true).values());
+    }
+
+    /** Dated and undated transactions of one instrument, ordered by id. */
+    List<Transaction> findByInstrument(long instrumentId) {
+        List<Transaction> rows = new ArrayList<>();
+        NavigableMap<DateKey, Transaction> dated = byInstrument.get(instrumentId);
+        if (dated != null) {
+            rows.addAll(dated.values());
+        }
+        NavigableMap<Long, Transaction> undated = undatedByInstrument.get(instrumentId);
+        if (undated != null) {
+            rows.addAll(undated.values());
+        }
+        rows.sort(Comparator.comparing(Transaction::id));
+        return rows;
+    }
+}
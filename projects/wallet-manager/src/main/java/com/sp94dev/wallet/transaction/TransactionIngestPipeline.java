@@ -0,0 +1,281 @@
+package com.sp94dev.wallet.transaction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.sp94dev.wallet.transaction.dto.IngestAck;
+import com.sp94dev.wallet.transaction.dto.IngestStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind ingestion: requests return once their transactions are in an
+ * {@link IngestRingBuffer}, and a single writer thread applies them in batches through
+ * {@link TransactionService#createAll}, i.e. store, stats and portfolio in one call per batch.
+ * A full buffer rejects the whole request rather than blocking the caller.
+ * <p>
+ * Shutdown drains: the pipeline stops after the web server (lower phase), stops accepting,
+ * waits for producers already past the check to finish publishing, and returns once the
+ * writer has applied everything accepted.
+ * <p>
+ * Accepted transactions have already been answered with 202, so a failed batch is not
+ * dropped: it is retried with a doubling backoff, then applied one transaction at a time so a
+ * single bad one does not hold back the rest, and whatever still fails is parked. Parked
+ * transactions can be listed and offered to the buffer again with {@link #replayParked()};
+ * only when the parking lot is full are they dropped and counted as failed.
+ * <p>
+ * Retrying relies on the sink storing all of a batch or none of it, as
+ * {@link TransactionService#createAll} does. A {@link PartialWriteException} says part of the
+ * batch stayed stored, so that batch is neither retried nor parked but counted as failed:
+ * applying it again would store the same transactions twice.
+ */
+@Slf4j
+@Component
+public class TransactionIngestPipeline implements SmartLifecycle {
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Consumer<List<Transaction>> sink;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final int maxAttempts;
+    private final long retryBackoffNanos;
+    private final int maxParked;
+    private final IngestRingBuffer<Transaction> buffer;
+    private final AtomicInteger producers = new AtomicInteger();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    // guarded by itself; filled by the writer, emptied by replayParked
+    private final Deque<Transaction> parked = new ArrayDeque<>();
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private volatile boolean writerIdle;
+    private volatile Thread writer;
+
+    @Autowired
+    public TransactionIngestPipeline(TransactionService transactionService, TransactionIngestProperties properties) {
+        this(transactionService::createAll, properties);
+    }
+
+    TransactionIngestPipeline(Consumer<List<Transaction>> sink, TransactionIngestProperties properties) {
+        if (properties.maxBatch() < 1) {
+            throw new IllegalArgumentException("Max batch must be positive: " + properties.maxBatch());
+        }
+        if (properties.maxAttempts() < 1) {
+            throw new IllegalArgumentException("Max attempts must be positive: " + properties.maxAttempts());
+        }
+        this.sink = sink;
+        this.enabled = properties.enabled();
+        this.maxBatch = properties.maxBatch();
+        this.maxAttempts = properties.maxAttempts();
+        this.retryBackoffNanos = properties.retryBackoff().toNanos();
+        this.maxParked = properties.maxParked();
+        this.buffer = new IngestRingBuffer<>(properties.bufferSize());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accepts all transactions or none. Returns the sequence of the last one, or -1 when the
+     * buffer has no room for them; throws {@link IllegalStateException} when the pipeline is
+     * not accepting writes (disabled, not started or shutting down).
+     */
+    public long offer(List<Transaction> transactions) {
+        producers.incrementAndGet();
+        try {
+            if (!accepting) {
+                throw new IllegalStateException("Transaction ingestion is not accepting writes");
+            }
+            long sequence = buffer.tryPublish(transactions);
+            if (sequence < 0) {
+                rejected.add(transactions.size());
+            } else if (writerIdle) {
+                LockSupport.unpark(writer);
+            }
+            return sequence;
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    public IngestStatus status() {
+        long consumed = buffer.consumed();
+        long accepted = buffer.claimed();
+        int parkedCount;
+        synchronized (parked) {
+            parkedCount = parked.size();
+        }
+        return new IngestStatus(accepted, consumed, accepted - consumed, buffer.capacity(), applied.sum(),
+                rejected.sum(), parkedCount, failed.sum());
+    }
+
+    /** Transactions that failed every attempt, oldest first. */
+    public List<Transaction> parked() {
+        synchronized (parked) {
+            return List.copyOf(parked);
+        }
+    }
+
+    /**
+     * Offers every parked transaction to the buffer again, all or none like {@link #offer}.
+     * The sequence is -1 and the transactions stay parked when the buffer has no room for
+     * them; throws {@link IllegalStateException} when the pipeline is not accepting writes.
+     */
+    public IngestAck replayParked() {
+        synchronized (parked) {
+            if (parked.isEmpty()) {
+                return new IngestAck(0, buffer.claimed());
+            }
+            List<Transaction> transactions = List.copyOf(parked);
+            long sequence = offer(transactions);
+            if (sequence >= 0) {
+                parked.clear();
+                log.info("Replayed {} parked transactions up to sequence {}", transactions.size(), sequence);
+            }
+            return new IngestAck(transactions.size(), sequence);
+        }
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().daemon().name("transaction-ingest-writer").start(this::writeLoop);
+        accepting = true;
+        log.info("Transaction ingestion started, buffer of {} transactions", buffer.capacity());
+    }
+
+    @Override
+    public void stop() {
+        // producers check accepting after registering, so once the count drops to zero
+        // nobody can publish anymore and the claimed sequence is final
+        accepting = false;
+        while (producers.get() > 0) {
+            Thread.onSpinWait();
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Transaction ingestion drained up to sequence {}", buffer.consumed());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void writeLoop() {
+        List<Transaction> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            int count = buffer.drainTo(batch, maxBatch);
+            if (count > 0) {
+                apply(batch);
+                buffer.release(count);
+                batch.clear();
+                continue;
+            }
+            if (!running && buffer.consumed() == buffer.claimed()) {
+                return;
+            }
+            writerIdle = true;
+            // a producer that missed the flag is picked up within one park interval
+            if (buffer.consumed() == buffer.claimed() && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+            writerIdle = false;
+        }
+    }
+
+    private void apply(List<Transaction> batch) {
+        long backoff = retryBackoffNanos;
+        for (int attempt = 1;; attempt++) {
+            try {
+                sink.accept(batch);
+                applied.add(batch.size());
+                return;
+            } catch (PartialWriteException e) {
+                fail(batch, e);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Applying {} ingested transactions failed {} times", batch.size(), attempt, e);
+                    break;
+                }
+                log.warn("Applying {} ingested transactions failed, retrying: {}", batch.size(), e.toString());
+                LockSupport.parkNanos(this, backoff);
+                backoff *= 2;
+            }
+        }
+        if (batch.size() == 1) {
+            park(batch);
+            return;
+        }
+        // one bad transaction should not take the rest of its batch down with it
+        List<Transaction> rejects = new ArrayList<>();
+        for (Transaction transaction : batch) {
+            try {
+                sink.accept(List.of(transaction));
+                applied.increment();
+            } catch (PartialWriteException e) {
+                fail(List.of(transaction), e);
+            } catch (RuntimeException e) {
+                rejects.add(transaction);
+            }
+        }
+        park(rejects);
+    }
+
+    private void fail(List<Transaction> transactions, PartialWriteException e) {
+        failed.add(transactions.size());
+        log.error("Applying {} ingested transactions left them partly stored, not retrying", transactions.size(), e);
+    }
+
+    private void park(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        int kept;
+        synchronized (parked) {
+            kept = Math.min(transactions.size(), Math.max(0, maxParked - parked.size()));
+            parked.addAll(transactions.subList(0, kept));
+        }
+        if (kept > 0) {
+            log.error("Parked {} ingested transactions that failed to apply", kept);
+        }
+        if (kept < transactions.size()) {
+            failed.add(transactions.size() - kept);
+            log.error("Dropped {} ingested transactions that failed to apply, the parking lot is full",
+                    transactions.size() - kept);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.sp94dev.wallet.transaction;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Write-behind ingestion ({@code POST /api/transactions/ingest}). {@code bufferSize} is the
+ * number of accepted but not yet applied transactions (a power of two) before requests are
+ * turned away with 429; {@code maxBatch} caps how many the writer applies at once. A batch
+ * that fails is tried {@code maxAttempts} times, {@code retryBackoff} apart and doubling;
+ * transactions that still fail are parked for replay, at most {@code maxParked} of them.
+ */
+@ConfigurationProperties("wallet.transactions.ingest")
+public record TransactionIngestProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("65536") int bufferSize,
+        @DefaultValue("1024") int maxBatch,
+        @DefaultValue("3") int maxAttempts,
+        @DefaultValue("100ms") Duration retryBackoff,
+        @DefaultValue("65536") int maxParked) {
+}
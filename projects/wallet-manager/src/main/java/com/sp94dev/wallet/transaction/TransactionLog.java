@@ -0,0 +1,614 @@
+package com.sp94dev.wallet.transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only transaction log made of memory-mapped segment files
+ * ({@code segment-00000001.log}, ...), each preallocated to a fixed size.
+ * <p>
+ * Every change is one {@value #RECORD_SIZE}-byte record:
+ * <pre>
+ *  0 id            long
+ *  8 instrumentId  long   (Long.MIN_VALUE = null)
+ * 16 quantity      double (NaN = null)
+ * 24 price         double (NaN = null)
+ * 32 epochDay      int    (Integer.MIN_VALUE = null)
+ * 36 type          byte   (-1 = null)
+ * 37 kind          byte   (1 = put, 2 = delete, 3 = compacted)
+ * 38 padding
+ * 44 crc32c        int    over bytes 0..43
+ * </pre>
+ * A put carries the whole transaction and the last put of an id wins on replay; a delete
+ * carries only the id. A compacted segment starts with a compacted record (id = next id at
+ * compaction time) and supersedes every lower-numbered segment. A zero id or a checksum
+ * mismatch marks the end of a segment. On open, everything in the active segment after its
+ * last valid record is zeroed and forced before new appends are accepted, so records that
+ * followed a torn one cannot reappear behind the next append.
+ * <p>
+ * Writers copy records into the active segment under a lock and then wait for a single
+ * flusher thread, which forces everything written so far with one {@code force()} call
+ * (group commit): concurrent writers share one sync instead of paying for their own.
+ * A batch is appended whole or not at all: room for all of its records is reserved before
+ * the first one is written, and a failure removes what the batch had written.
+ */
+final class TransactionLog implements Closeable {
+    static final int RECORD_SIZE = 48;
+    private static final int CHECKSUMMED_BYTES = 44;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte COMPACTED = 3;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte NO_TYPE = -1;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final int REPLAY_BATCH_SIZE = 10_000;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final Object writeLock = new Object();
+    private final Object flushMonitor = new Object();
+    private final Thread flusher;
+
+    // guarded by writeLock
+    private Segment active;
+    private long nextId;
+
+    // guarded by flushMonitor; offsets are positions in the concatenation of all segments
+    private long requested;
+    private long durable;
+    private boolean closed;
+
+    private static final class Segment {
+        private final long number;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long baseOffset;
+        private int position;
+
+        private Segment(long number, FileChannel channel, MappedByteBuffer buffer, long baseOffset, int position) {
+            this.number = number;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.baseOffset = baseOffset;
+            this.position = position;
+        }
+
+        private long endOffset() {
+            return baseOffset + position;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(ByteBuffer buffer, int position);
+    }
+
+    private TransactionLog(Path directory, int segmentSize, boolean fsync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+        this.fsync = fsync;
+        this.flusher = Thread.ofPlatform().daemon().name("transaction-log-flusher").unstarted(this::flushLoop);
+    }
+
+    /**
+     * Opens (or creates) the log in {@code directory}, handing every stored change to
+     * {@code puts} and {@code deletes} in log order before any new append is accepted.
+     */
+    static TransactionLog open(Path directory, int segmentSize, boolean fsync, Consumer<List<Transaction>> puts,
+            LongConsumer deletes) throws IOException {
+        if (segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must hold at least one record: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        TransactionLog log = new TransactionLog(directory, segmentSize, fsync);
+        log.recover(puts, deletes);
+        log.flusher.start();
+        return log;
+    }
+
+    /** Assigns ids to {@code transactions}, appends them and returns once they are durable. */
+    List<Transaction> append(List<Transaction> transactions) {
+        List<Transaction> saved = new ArrayList<>(transactions.size());
+        Iterator<Transaction> source = transactions.iterator();
+        long end;
+        synchronized (writeLock) {
+            long firstId = nextId;
+            end = appendRecords(transactions.size(), (buffer, position) -> {
+                Transaction newTransaction = withId(firstId + saved.size(), source.next());
+                write(buffer, position, newTransaction);
+                saved.add(newTransaction);
+            });
+            nextId = firstId + saved.size();
+        }
+        awaitDurable(end);
+        return saved;
+    }
+
+    /** Appends new versions of transactions that already have ids and returns once they are durable. */
+    void appendUpdates(List<Transaction> transactions) {
+        Iterator<Transaction> source = transactions.iterator();
+        long end;
+        synchronized (writeLock) {
+            end = appendRecords(transactions.size(), (buffer, position) -> write(buffer, position, source.next()));
+        }
+        awaitDurable(end);
+    }
+
+    /** Appends deletes of the given ids and returns once they are durable. */
+    void appendDeletes(List<Long> ids) {
+        Iterator<Long> source = ids.iterator();
+        long end;
+        synchronized (writeLock) {
+            end = appendRecords(ids.size(), (buffer, position) -> writeMarker(buffer, position, DELETE, source.next()));
+        }
+        awaitDurable(end);
+    }
+
+    /**
+     * Rewrites all sealed segments (every segment but the active one) into a single segment
+     * holding only the puts accepted by {@code live}; deletes are dropped along with the puts
+     * they cancelled. The result takes the number of the newest sealed segment, replaces it
+     * with an atomic rename and is marked as compacted, so if a crash leaves the older
+     * segments behind, the next open deletes them instead of replaying them.
+     * <p>
+     * {@code awaitWriters} is called once the sealed range is fixed and must return only
+     * after every write appended to that range is visible to {@code live}.
+     *
+     * @return number of records dropped
+     */
+    long compact(Runnable awaitWriters, Predicate<Transaction> live) throws IOException {
+        long activeNumber;
+        long idWatermark;
+        synchronized (writeLock) {
+            if (active == null) {
+                return 0;
+            }
+            activeNumber = active.number;
+            idWatermark = nextId;
+        }
+        awaitWriters.run();
+        List<Path> sealed = segments().stream()
+                .filter(path -> segmentNumber(path) < activeNumber)
+                .toList();
+        if (sealed.isEmpty()) {
+            return 0;
+        }
+        Path target = sealed.getLast();
+        Path temporary = target.resolveSibling(target.getFileName() + COMPACT_SUFFIX);
+        long dropped = 0;
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer chunk = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            writeMarker(chunk, 0, COMPACTED, idWatermark);
+            chunk.position(RECORD_SIZE);
+            for (Path segment : sealed) {
+                try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                    for (int position = 0; isValid(buffer, position); position += RECORD_SIZE) {
+                        byte kind = buffer.get(position + 37);
+                        if (kind == COMPACTED) {
+                            continue;
+                        }
+                        if (kind == DELETE || !live.test(read(buffer, position))) {
+                            dropped++;
+                            continue;
+                        }
+                        if (!chunk.hasRemaining()) {
+                            writeFully(out, chunk);
+                        }
+                        chunk.put(buffer.slice(position, RECORD_SIZE));
+                    }
+                }
+            }
+            writeFully(out, chunk);
+            out.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Path segment : sealed) {
+            if (!segment.equals(target)) {
+                Files.delete(segment);
+            }
+        }
+        return dropped;
+    }
+
+    int segmentCount() throws IOException {
+        return segments().size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the flusher drains pending writes before it exits
+        synchronized (flushMonitor) {
+            closed = true;
+            flushMonitor.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Segment last;
+        synchronized (writeLock) {
+            last = active;
+            active = null;
+        }
+        if (last != null) {
+            last.buffer.force();
+            last.channel.close();
+        }
+    }
+
+    private void recover(Consumer<List<Transaction>> puts, LongConsumer deletes) throws IOException {
+        try (Stream<Path> leftovers = Files.list(directory)) {
+            for (Path path : leftovers.filter(p -> p.getFileName().toString().endsWith(COMPACT_SUFFIX)).toList()) {
+                Files.delete(path);
+            }
+        }
+        List<Path> segments = dropSuperseded(segments());
+        long maxId = 0;
+        List<Transaction> batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            boolean last = i == segments.size() - 1;
+            FileChannel channel = last
+                    ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                    : FileChannel.open(path, StandardOpenOption.READ);
+            MappedByteBuffer buffer = last
+                    ? channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize))
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int position = 0;
+            for (; isValid(buffer, position); position += RECORD_SIZE) {
+                byte kind = buffer.get(position + 37);
+                long id = buffer.getLong(position);
+                if (kind == COMPACTED) {
+                    maxId = Math.max(maxId, id - 1);
+                    continue;
+                }
+                maxId = Math.max(maxId, id);
+                if (kind == DELETE) {
+                    // keep log order: earlier puts of this id must be applied first
+                    if (!batch.isEmpty()) {
+                        puts.accept(batch);
+                        batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+                    }
+                    deletes.accept(id);
+                    continue;
+                }
+                batch.add(read(buffer, position));
+                if (batch.size() == REPLAY_BATCH_SIZE) {
+                    puts.accept(batch);
+                    batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+                }
+            }
+            if (last) {
+                zeroTail(buffer, position);
+                active = new Segment(segmentNumber(path), channel, buffer, 0, position);
+            } else {
+                channel.close();
+            }
+        }
+        if (!batch.isEmpty()) {
+            puts.accept(batch);
+        }
+        if (active == null) {
+            active = createSegment(1, 0);
+        }
+        nextId = maxId + 1;
+        requested = durable = active.endOffset();
+    }
+
+    // A crash can tear one record while later ones reached the disk. Replay stops at the torn
+    // record and the next append reuses its slot, so the later records would become valid
+    // again behind it; clear them now. Only non-zero words are written, so an untouched
+    // preallocated tail is read but not dirtied.
+    private static void zeroTail(MappedByteBuffer buffer, int position) {
+        boolean cleared = false;
+        int end = buffer.capacity();
+        int offset = position;
+        for (; offset + Long.BYTES <= end; offset += Long.BYTES) {
+            if (buffer.getLong(offset) != 0) {
+                buffer.putLong(offset, 0);
+                cleared = true;
+            }
+        }
+        for (; offset < end; offset++) {
+            if (buffer.get(offset) != 0) {
+                buffer.put(offset, (byte) 0);
+                cleared = true;
+            }
+        }
+        if (cleared) {
+            buffer.force();
+        }
+    }
+
+    // Segments below the newest compacted one are leftovers of a compaction that crashed
+    // before deleting them; the compacted segment already holds their live records.
+    private static List<Path> dropSuperseded(List<Path> segments) throws IOException {
+        for (int i = segments.size() - 1; i > 0; i--) {
+            if (isCompacted(segments.get(i))) {
+                for (Path superseded : segments.subList(0, i)) {
+                    Files.delete(superseded);
+                }
+                return List.copyOf(segments.subList(i, segments.size()));
+            }
+        }
+        return segments;
+    }
+
+    private static boolean isCompacted(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer first = ByteBuffer.allocate(RECORD_SIZE);
+            while (first.hasRemaining() && channel.read(first) >= 0) {
+                // read the whole first record
+            }
+            return isValid(first, 0) && first.get(37) == COMPACTED;
+        }
+    }
+
+    // Called under writeLock; returns the log offset just past the batch. A batch that does not
+    // fit behind the active segment's last record starts a new segment, and every segment it
+    // needs is created before the first record is written. Sealed segments are forced here, so
+    // the flusher only ever has to deal with the active one. Any failure drops the segments the
+    // batch created and zeroes the slots it used, leaving the log and nextId as they were.
+    private long appendRecords(int count, RecordWriter writer) {
+        if (active == null) {
+            throw new IllegalStateException("Transaction log is closed");
+        }
+        if ((long) count * RECORD_SIZE <= active.buffer.capacity() - active.position) {
+            int start = active.position;
+            try {
+                for (int i = 0; i < count; i++) {
+                    writer.write(active.buffer, active.position);
+                    active.position += RECORD_SIZE;
+                }
+            } catch (RuntimeException e) {
+                zero(active.buffer, start, active.position);
+                active.position = start;
+                throw e;
+            }
+            return active.endOffset();
+        }
+        int perSegment = segmentSize / RECORD_SIZE;
+        List<Segment> created = new ArrayList<>();
+        try {
+            long number = active.number;
+            long baseOffset = active.baseOffset + active.buffer.capacity();
+            for (int remaining = count; remaining > 0; remaining -= perSegment) {
+                Segment segment = createSegment(++number, baseOffset);
+                created.add(segment);
+                baseOffset += segment.buffer.capacity();
+            }
+            for (int i = 0; i < count; i++) {
+                Segment segment = created.get(i / perSegment);
+                writer.write(segment.buffer, segment.position);
+                segment.position += RECORD_SIZE;
+            }
+            if (fsync) {
+                active.buffer.force();
+                for (Segment segment : created.subList(0, created.size() - 1)) {
+                    segment.buffer.force();
+                }
+            }
+        } catch (IOException e) {
+            discard(created, e);
+            throw new UncheckedIOException("Cannot roll transaction log segment", e);
+        } catch (RuntimeException e) {
+            discard(created, e);
+            throw e;
+        }
+        List<Segment> sealed = new ArrayList<>(created.size());
+        sealed.add(active);
+        sealed.addAll(created.subList(0, created.size() - 1));
+        active = created.getLast();
+        for (Segment segment : sealed) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                // the mapping stays valid without the channel; only the handle leaks
+            }
+        }
+        return active.endOffset();
+    }
+
+    private void discard(List<Segment> segments, Exception failure) {
+        for (Segment segment : segments) {
+            try {
+                segment.channel.close();
+                Files.delete(directory.resolve(segmentName(segment.number)));
+            } catch (IOException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    private static void zero(ByteBuffer buffer, int from, int to) {
+        for (int offset = from; offset < to; offset += Long.BYTES) {
+            buffer.putLong(offset, 0);
+        }
+    }
+
+    private Segment createSegment(long number, long baseOffset) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(segmentName(number)), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new Segment(number, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize),
+                baseOffset, 0);
+    }
+
+    private static String segmentName(long number) {
+        return SEGMENT_PREFIX + "%08d".formatted(number) + SEGMENT_SUFFIX;
+    }
+
+    // The records are in the log once this is called, so an interrupt cannot turn the write
+    // into a failure; the wait goes on and the flag is restored afterwards.
+    private void awaitDurable(long end) {
+        if (!fsync) {
+            return;
+        }
+        boolean interrupted = false;
+        synchronized (flushMonitor) {
+            if (end > requested) {
+                requested = end;
+                flushMonitor.notifyAll();
+            }
+            try {
+                while (durable < end) {
+                    if (closed) {
+                        throw new IllegalStateException("Transaction log closed before the write was flushed");
+                    }
+                    try {
+                        flushMonitor.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long from;
+            long target;
+            synchronized (flushMonitor) {
+                while (!closed && requested <= durable) {
+                    try {
+                        flushMonitor.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (requested <= durable) {
+                    return;
+                }
+                from = durable;
+                target = requested;
+            }
+            Segment segment;
+            synchronized (writeLock) {
+                segment = active;
+            }
+            if (segment != null) {
+                // anything before the active segment was forced when it was sealed
+                int start = (int) (Math.max(from, segment.baseOffset) - segment.baseOffset);
+                int end = (int) Math.min(target - segment.baseOffset, segment.buffer.capacity());
+                if (end > start) {
+                    segment.buffer.force(start, end - start);
+                }
+            }
+            synchronized (flushMonitor) {
+                durable = Math.max(durable, target);
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void write(ByteBuffer buffer, int position, Transaction transaction) {
+        buffer.putLong(position, transaction.id());
+        buffer.putLong(position + 8, transaction.instrumentId() != null ? transaction.instrumentId() : NO_VALUE);
+        buffer.putDouble(position + 16, transaction.quantity() != null ? transaction.quantity() : Double.NaN);
+        buffer.putDouble(position + 24, transaction.price() != null ? transaction.price() : Double.NaN);
+        buffer.putInt(position + 32, transaction.date() != null ? (int) transaction.date().toEpochDay() : NO_DATE);
+        buffer.put(position + 36, transaction.type() != null ? (byte) transaction.type().ordinal() : NO_TYPE);
+        buffer.put(position + 37, PUT);
+        buffer.putInt(position + CHECKSUMMED_BYTES, checksum(buffer, position));
+    }
+
+    private static void writeMarker(ByteBuffer buffer, int position, byte kind, long id) {
+        buffer.putLong(position, id);
+        buffer.put(position + 37, kind);
+        buffer.putInt(position + CHECKSUMMED_BYTES, checksum(buffer, position));
+    }
+
+    private static boolean isValid(ByteBuffer buffer, int position) {
+        if (position + RECORD_SIZE > buffer.capacity() || buffer.getLong(position) == 0) {
+            return false;
+        }
+        byte kind = buffer.get(position + 37);
+        return (kind == PUT || kind == DELETE || kind == COMPACTED)
+                && buffer.getInt(position + CHECKSUMMED_BYTES) == checksum(buffer, position);
+    }
+
+    private static Transaction read(ByteBuffer buffer, int position) {
+        long instrumentId = buffer.getLong(position + 8);
+        double quantity = buffer.getDouble(position + 16);
+        double price = buffer.getDouble(position + 24);
+        int epochDay = buffer.getInt(position + 32);
+        byte type = buffer.get(position + 36);
+        return new Transaction(
+                buffer.getLong(position),
+                instrumentId != NO_VALUE ? instrumentId : null,
+                type != NO_TYPE ? TYPES[type] : null,
+                Double.isNaN(quantity) ? null : quantity,
+                Double.isNaN(price) ? null : price,
+                epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null);
+    }
+
+    private static int checksum(ByteBuffer buffer, int position) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position, CHECKSUMMED_BYTES));
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer chunk) throws IOException {
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+        chunk.clear();
+    }
+
+    private static Transaction withId(long id, Transaction transaction) {
+        return new Transaction(
+                id,
+                transaction.instrumentId(),
+                transaction.type(),
+                transaction.quantity(),
+                transaction.price(),
+                transaction.date());
+    }
+}
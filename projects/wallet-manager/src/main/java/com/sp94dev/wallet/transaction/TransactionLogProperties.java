@@ -0,0 +1,15 @@
+package com.sp94dev.wallet.transaction;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("wallet.transactions.log")
+public record TransactionLogProperties(
+        @DefaultValue("data/transactions") String directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("true") boolean fsync,
+        @DefaultValue("10m") Duration compactionInterval) {
+}
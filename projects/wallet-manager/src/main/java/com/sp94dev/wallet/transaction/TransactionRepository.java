@@ -1,11 +1,57 @@
 package com.sp94dev.wallet.transaction;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+
+import com.sp94dev.wallet.transaction.dto.TransactionBucket;
+import com.sp94dev.wallet.transaction.dto.TransactionStats;
 
 public interface TransactionRepository {
     
     Transaction save(Transaction transaction);
+
+    /** Saves a batch with a single id-range reservation; returned list keeps input order. */
+    List<Transaction> saveAll(List<Transaction> transactions);
+
+    /**
+     * Replaces transactions by their ids. Per item returns the replaced transaction, or empty
+     * when the id is unknown, in which case nothing is written.
+     */
+    List<Optional<Transaction>> updateAll(List<Transaction> transactions);
+
+    /** Per id returns the removed transaction, or empty when the id is unknown. */
+    List<Optional<Transaction>> deleteAll(List<Long> ids);
     
     List<Transaction> findAll();
-    
+
+    /** Keyset page: up to {@code limit} transactions with id greater than {@code afterId}, ordered by id. */
+    List<Transaction> findPage(Long afterId, int limit);
+
+    /**
+     * Transactions dated within [from, to], ordered by date then id. A null bound is open; a
+     * null instrument id means all instruments. Undated transactions never match.
+     */
+    List<Transaction> findByDate(Long instrumentId, LocalDate from, LocalDate to);
+
+    /** Every transaction of one instrument, dated or not, ordered by id. */
+    List<Transaction> findByInstrument(long instrumentId);
+
+    /**
+     * Pre-aggregated totals per day or month over [from, to], same bound rules as
+     * {@link #findByDate}; only non-empty buckets are returned.
+     */
+    List<TransactionBucket> buckets(Long instrumentId, LocalDate from, LocalDate to, BucketInterval interval);
+
+    /**
+     * Count, volume and value per group over [from, to] (same bound rules as
+     * {@link #findByDate}), computed on demand in parallel. {@link GroupBy#MARKET} is keyed by
+     * instrument id; rows missing the grouping field are left out.
+     */
+    AggregateTable aggregate(GroupBy groupBy, LocalDate from, LocalDate to);
+
+    TransactionStats stats();
+
+    long count();
+
 }
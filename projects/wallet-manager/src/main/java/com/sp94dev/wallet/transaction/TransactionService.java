@@ -1,11 +1,25 @@
 package com.sp94dev.wallet.transaction;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.springframework.stereotype.Service;
 
+import com.sp94dev.wallet.instrument.Instrument;
+import com.sp94dev.wallet.instrument.InstrumentRepository;
+import com.sp94dev.wallet.portfolio.PortfolioService;
+import com.sp94dev.wallet.transaction.dto.TransactionAggregate;
+import com.sp94dev.wallet.transaction.dto.TransactionBucket;
 import com.sp94dev.wallet.transaction.dto.TransactionStats;
 
 import lombok.RequiredArgsConstructor;
@@ -14,24 +28,164 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class TransactionService {
     private final TransactionRepository repository;
+    private final PortfolioService portfolioService;
+    private final InstrumentRepository instrumentRepository;
+    // Creates share the read side; updates and deletes hold the write side until the affected
+    // positions are rebuilt, so a concurrent create is neither missed nor counted twice.
+    private final ReadWriteLock portfolioLock = new ReentrantReadWriteLock();
 
     public List<Transaction> getAll() {
         return repository.findAll();
     }
 
+    public List<Transaction> getPage(Long afterId, int limit) {
+        return repository.findPage(afterId, limit);
+    }
+
+    public List<Transaction> getByDate(Long instrumentId, LocalDate from, LocalDate to) {
+        return repository.findByDate(instrumentId, from, to);
+    }
+
+    public List<TransactionBucket> getBuckets(Long instrumentId, LocalDate from, LocalDate to, BucketInterval interval) {
+        return repository.buckets(instrumentId, from, to, interval);
+    }
+
+    /**
+     * Ad-hoc totals per group, computed in parallel by the store. Markets are folded from
+     * per-instrument rows here, one instrument lookup per traded instrument; an unknown
+     * instrument or one without a market lands in "unknown".
+     */
+    public List<TransactionAggregate> aggregate(GroupBy groupBy, LocalDate from, LocalDate to) {
+        AggregateTable table = repository.aggregate(groupBy, from, to);
+        List<TransactionAggregate> result = new ArrayList<>(table.size());
+        if (groupBy != GroupBy.MARKET) {
+            table.forEach((key, count, volume, value) ->
+                    result.add(new TransactionAggregate(label(groupBy, key), count, volume, value)));
+            return result;
+        }
+        Map<String, TransactionAggregate> byMarket = new TreeMap<>();
+        table.forEach((instrumentId, count, volume, value) -> {
+            String market = instrumentRepository.findById(instrumentId)
+                    .map(Instrument::market)
+                    .orElse("unknown");
+            byMarket.merge(market, new TransactionAggregate(market, count, volume, value),
+                    (a, b) -> new TransactionAggregate(market, a.count() + b.count(), a.volume() + b.volume(),
+                            a.value() + b.value()));
+        });
+        result.addAll(byMarket.values());
+        return result;
+    }
+
+    private static String label(GroupBy groupBy, long key) {
+        return switch (groupBy) {
+            case TYPE -> TransactionType.values()[(int) key].name();
+            case MONTH -> YearMonth.from(BucketInterval.MONTH.start(key)).toString();
+            default -> String.valueOf(key);
+        };
+    }
+
     public Transaction create(Transaction transaction) {
-        return repository.save(transaction);
+        Lock shared = portfolioLock.readLock();
+        shared.lock();
+        try {
+            Transaction created = repository.save(transaction);
+            portfolioService.apply(created);
+            return created;
+        } finally {
+            shared.unlock();
+        }
     }
 
-    public TransactionStats getStats() {
-        List<Transaction> allTransactions = repository.findAll();
-        int totalTransactions = allTransactions.size();
-        Map<TransactionType, Long> byType = allTransactions.stream()
-                .collect(Collectors.groupingBy(Transaction::type, Collectors.counting()));
-        Map<Long, Double> valueByInstrument = allTransactions.stream().collect(
-                Collectors.groupingBy(
-                        Transaction::instrumentId, Collectors.summingDouble(t -> t.price() * t.quantity())));
-        return new TransactionStats(totalTransactions, byType, valueByInstrument);
+    /**
+     * Stores and applies all transactions or none of them, so a failed call can be retried:
+     * when the portfolio cannot take a stored batch, the batch is deleted again and the
+     * affected positions rebuilt before the failure is rethrown. If the delete fails as well,
+     * a {@link PartialWriteException} is thrown instead and the batch must not be retried.
+     */
+    public List<Transaction> createAll(List<Transaction> transactions) {
+        // a null would fail the store halfway through the batch
+        List<Transaction> batch = List.copyOf(transactions);
+        List<Transaction> created;
+        RuntimeException failure;
+        Lock shared = portfolioLock.readLock();
+        shared.lock();
+        try {
+            created = repository.saveAll(batch);
+            try {
+                portfolioService.applyAll(created);
+                return created;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        } finally {
+            shared.unlock();
+        }
+        undoCreate(created, failure);
+        throw failure;
+    }
 
+    private void undoCreate(List<Transaction> created, RuntimeException failure) {
+        Lock exclusive = portfolioLock.writeLock();
+        exclusive.lock();
+        try {
+            try {
+                repository.deleteAll(created.stream().map(Transaction::id).toList());
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+                throw new PartialWriteException(
+                        "Stored " + created.size() + " transactions that could neither be applied nor removed", failure);
+            }
+            Set<Long> affected = new HashSet<>();
+            created.forEach(transaction -> affected.add(transaction.instrumentId()));
+            affected.remove(null);
+            try {
+                portfolioService.rebuild(affected);
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    /** Per item the replaced transaction, empty when the id is unknown. */
+    public List<Optional<Transaction>> updateAll(List<Transaction> transactions) {
+        Lock exclusive = portfolioLock.writeLock();
+        exclusive.lock();
+        try {
+            List<Optional<Transaction>> replaced = repository.updateAll(transactions);
+            Set<Long> affected = new HashSet<>();
+            for (int i = 0; i < transactions.size(); i++) {
+                if (replaced.get(i).isPresent()) {
+                    affected.add(replaced.get(i).get().instrumentId());
+                    affected.add(transactions.get(i).instrumentId());
+                }
+            }
+            affected.remove(null);
+            portfolioService.rebuild(affected);
+            return replaced;
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    /** Per id the removed transaction, empty when the id is unknown. */
+    public List<Optional<Transaction>> deleteAll(List<Long> ids) {
+        Lock exclusive = portfolioLock.writeLock();
+        exclusive.lock();
+        try {
+            List<Optional<Transaction>> removed = repository.deleteAll(ids);
+            Set<Long> affected = new HashSet<>();
+            removed.forEach(previous -> previous.ifPresent(transaction -> affected.add(transaction.instrumentId())));
+            affected.remove(null);
+            portfolioService.rebuild(affected);
+            return removed;
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    public TransactionStats getStats() {
+        return repository.stats();
     }
 }
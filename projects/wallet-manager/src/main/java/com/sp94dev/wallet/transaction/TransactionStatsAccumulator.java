@@ -0,0 +1,128 @@
+package com.sp94dev.wallet.transaction;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.sp94dev.wallet.transaction.dto.TransactionStats;
+
+/**
+ * Running aggregates behind {@link TransactionStats}, updated on every write instead of
+ * replaying the whole history per request. Writers update striped adders under the shared
+ * side of a read-write lock; {@link #snapshot()} takes the exclusive side, so a snapshot
+ * never observes half of a transaction. Instruments keep a count next to their value, so one
+ * whose transactions are all removed drops out of the snapshot as it would from a full
+ * recomputation.
+ */
+final class TransactionStatsAccumulator {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder total = new LongAdder();
+    private final Map<TransactionType, LongAdder> countByType = new EnumMap<>(TransactionType.class);
+    private final Map<Long, InstrumentTotals> byInstrument = new ConcurrentHashMap<>();
+
+    private record InstrumentTotals(LongAdder count, DoubleAdder value) {
+        private InstrumentTotals() {
+            this(new LongAdder(), new DoubleAdder());
+        }
+    }
+
+    TransactionStatsAccumulator() {
+        for (TransactionType type : TransactionType.values()) {
+            countByType.put(type, new LongAdder());
+        }
+    }
+
+    void add(Transaction transaction) {
+        apply(transaction, 1);
+    }
+
+    void remove(Transaction transaction) {
+        apply(transaction, -1);
+    }
+
+    /** Folds a batch locally first, so bulk loads take the lock and touch the adders once. */
+    void addAll(List<Transaction> transactions) {
+        long[] counts = new long[TransactionType.values().length];
+        Map<Long, Double> values = new HashMap<>();
+        Map<Long, Long> instrumentCounts = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.type() != null) {
+                counts[transaction.type().ordinal()]++;
+            }
+            if (hasValue(transaction)) {
+                values.merge(transaction.instrumentId(), transaction.price() * transaction.quantity(), Double::sum);
+                instrumentCounts.merge(transaction.instrumentId(), 1L, Long::sum);
+            }
+        }
+        Lock writers = lock.readLock();
+        writers.lock();
+        try {
+            total.add(transactions.size());
+            countByType.forEach((type, count) -> count.add(counts[type.ordinal()]));
+            values.forEach((instrumentId, value) -> {
+                InstrumentTotals totals = byInstrument.computeIfAbsent(instrumentId, id -> new InstrumentTotals());
+                totals.count().add(instrumentCounts.get(instrumentId));
+                totals.value().add(value);
+            });
+        } finally {
+            writers.unlock();
+        }
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        Lock writers = lock.readLock();
+        writers.lock();
+        try {
+            total.add(sign);
+            if (transaction.type() != null) {
+                countByType.get(transaction.type()).add(sign);
+            }
+            if (hasValue(transaction)) {
+                InstrumentTotals totals = byInstrument.computeIfAbsent(transaction.instrumentId(),
+                        id -> new InstrumentTotals());
+                totals.count().add(sign);
+                totals.value().add(sign * transaction.price() * transaction.quantity());
+            }
+        } finally {
+            writers.unlock();
+        }
+    }
+
+    private static boolean hasValue(Transaction transaction) {
+        return transaction.instrumentId() != null && transaction.price() != null && transaction.quantity() != null;
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    TransactionStats snapshot() {
+        Lock readers = lock.writeLock();
+        readers.lock();
+        try {
+            Map<TransactionType, Long> byType = new EnumMap<>(TransactionType.class);
+            countByType.forEach((type, count) -> {
+                long value = count.sum();
+                if (value > 0) {
+                    byType.put(type, value);
+                }
+            });
+            Map<Long, Double> valueByInstrument = new HashMap<>(byInstrument.size() * 2);
+            byInstrument.forEach((instrumentId, totals) -> {
+                if (totals.count().sum() > 0) {
+                    valueByInstrument.put(instrumentId, totals.value().sum());
+                }
+            });
+            return new TransactionStats(total.intValue(), byType, valueByInstrument);
+        } finally {
+            readers.unlock();
+        }
+    }
+}
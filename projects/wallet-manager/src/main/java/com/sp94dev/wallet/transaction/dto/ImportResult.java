@@ -0,0 +1,14 @@
+package com.sp94dev.wallet.transaction.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record ImportResult(
+        @Schema(description = "CSV data rows read (header excluded)", example = "1000") long rowsRead,
+        @Schema(description = "Transactions created from accepted rows", example = "1990") long transactionsImported,
+        @Schema(description = "Rows rejected by parsing or instrument lookup", example = "5") long rowsRejected,
+        @Schema(description = "First rejection reasons with line numbers") List<String> errors,
+        @Schema(description = "Import wall-clock time in milliseconds", example = "420") long elapsedMillis,
+        @Schema(description = "Throughput in CSV rows per second", example = "2380.9") double rowsPerSecond) {
+}
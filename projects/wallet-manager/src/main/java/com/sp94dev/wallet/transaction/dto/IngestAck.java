@@ -0,0 +1,9 @@
+package com.sp94dev.wallet.transaction.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record IngestAck(
+        @Schema(description = "Number of transactions accepted", example = "2") int accepted,
+        @Schema(description = "Sequence of the last accepted transaction; all of them are applied once "
+                + "appliedSequence in the ingest status reaches it", example = "1042") long sequence) {
+}
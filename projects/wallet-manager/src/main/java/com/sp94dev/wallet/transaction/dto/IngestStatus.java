@@ -0,0 +1,17 @@
+package com.sp94dev.wallet.transaction.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record IngestStatus(
+        @Schema(description = "Sequence of the last accepted transaction", example = "1042") long acceptedSequence,
+        @Schema(description = "Sequence of the last transaction the writer is done with, applied or parked",
+                example = "1000") long appliedSequence,
+        @Schema(description = "Buffer slots in use", example = "42") long pending,
+        @Schema(description = "Buffer size", example = "65536") int capacity,
+        @Schema(description = "Transactions applied to the store", example = "998") long applied,
+        @Schema(description = "Transactions turned away because the buffer was full", example = "0") long rejected,
+        @Schema(description = "Transactions that failed every attempt and wait in the parking lot for a replay",
+                example = "2") long parked,
+        @Schema(description = "Transactions dropped because they failed and the parking lot was full",
+                example = "0") long failed) {
+}
@@ -0,0 +1,10 @@
+package com.sp94dev.wallet.transaction.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record TransactionAggregate(
+        @Schema(description = "Group label: instrument id, type, month (yyyy-MM) or market", example = "NASDAQ") String group,
+        @Schema(description = "Number of transactions in the group", example = "1200") long count,
+        @Schema(description = "Sum of quantities, buys and sells alike", example = "5400.0") double volume,
+        @Schema(description = "Sum of quantity times price", example = "812500.0") double value) {
+}
@@ -0,0 +1,12 @@
+package com.sp94dev.wallet.transaction.dto;
+
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record TransactionBucket(
+        @Schema(description = "First day of the bucket", example = "2024-02-01") LocalDate start,
+        @Schema(description = "Number of transactions in the bucket", example = "12") long count,
+        @Schema(description = "Sum of quantities, buys and sells alike", example = "140.0") double volume,
+        @Schema(description = "Sum of quantity times price", example = "21035.5") double value) {
+}
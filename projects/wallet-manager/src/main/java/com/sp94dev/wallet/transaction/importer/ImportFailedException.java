@@ -0,0 +1,22 @@
+package com.sp94dev.wallet.transaction.importer;
+
+import com.sp94dev.wallet.transaction.dto.ImportResult;
+
+/**
+ * Storing a batch of an import failed. Batches before it stay imported; {@link #committed()}
+ * counts them, so a client knows the file cannot simply be sent again.
+ */
+public class ImportFailedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient ImportResult committed;
+
+    public ImportFailedException(String message, ImportResult committed, Throwable cause) {
+        super(message, cause);
+        this.committed = committed;
+    }
+
+    public ImportResult committed() {
+        return committed;
+    }
+}
@@ -0,0 +1,150 @@
+package com.sp94dev.wallet.transaction.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import com.sp94dev.wallet.instrument.Instrument;
+import com.sp94dev.wallet.instrument.InstrumentService;
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionService;
+import com.sp94dev.wallet.transaction.dto.ImportResult;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams an XTB CSV export into the transaction store. Lines are read in batches of
+ * {@link #BATCH_SIZE}, each batch is parsed in parallel and saved with one
+ * {@code createAll} call, so memory stays bounded by the batch size, not the file size.
+ * <p>
+ * Each batch is committed on its own: when storing one fails, the batches before it stay
+ * imported and the {@link ImportFailedException} says how many rows that covers.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionImportService {
+    private static final int BATCH_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final TransactionService transactionService;
+    private final InstrumentService instrumentService;
+
+    private record Line(long number, String text) {
+    }
+
+    private record ParsedLine(List<Transaction> transactions, String error) {
+    }
+
+    private static final class Progress {
+        private long rowsRead;
+        private long transactionsImported;
+        private long rowsRejected;
+        private final List<String> errors = new ArrayList<>();
+    }
+
+    /**
+     * @throws IllegalArgumentException when the header lacks a required column; nothing is
+     *         imported then
+     * @throws ImportFailedException when storing a batch fails after earlier ones were stored
+     */
+    public ImportResult importXtbCsv(InputStream csv) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+        Map<String, Optional<Instrument>> instruments = new ConcurrentHashMap<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header != null) {
+            XtbCsvParser parser = XtbCsvParser.fromHeader(header);
+            List<Line> batch = new ArrayList<>(BATCH_SIZE);
+            long lineNumber = 1;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                batch.add(new Line(lineNumber, text));
+                if (batch.size() == BATCH_SIZE) {
+                    importBatch(batch, parser, instruments, progress, started);
+                    batch.clear();
+                }
+            }
+            importBatch(batch, parser, instruments, progress, started);
+        }
+
+        ImportResult result = result(progress, started);
+        log.info("Imported {} transactions from {} XTB rows ({} rejected) at {} rows/s",
+                result.transactionsImported(), result.rowsRead(), result.rowsRejected(),
+                Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    private static ImportResult result(Progress progress, long started) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - started);
+        return new ImportResult(
+                progress.rowsRead,
+                progress.transactionsImported,
+                progress.rowsRejected,
+                List.copyOf(progress.errors),
+                elapsedNanos / 1_000_000,
+                progress.rowsRead * 1_000_000_000.0 / elapsedNanos);
+    }
+
+    private void importBatch(List<Line> batch, XtbCsvParser parser, Map<String, Optional<Instrument>> instruments,
+            Progress progress, long started) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<ParsedLine> parsed = batch.parallelStream()
+                .map(line -> parse(line, parser, instruments))
+                .toList();
+        List<Transaction> transactions = new ArrayList<>(parsed.size() * 2);
+        List<String> errors = new ArrayList<>();
+        for (ParsedLine line : parsed) {
+            if (line.error() != null) {
+                errors.add(line.error());
+            } else {
+                transactions.addAll(line.transactions());
+            }
+        }
+        try {
+            transactionService.createAll(transactions);
+        } catch (RuntimeException e) {
+            String message = "Storing lines " + batch.getFirst().number() + "-" + batch.getLast().number()
+                    + " failed: " + e.getMessage();
+            progress.errors.add(message);
+            throw new ImportFailedException(message, result(progress, started), e);
+        }
+        progress.rowsRead += batch.size();
+        progress.transactionsImported += transactions.size();
+        progress.rowsRejected += errors.size();
+        progress.errors.addAll(errors.subList(0, Math.min(errors.size(),
+                Math.max(0, MAX_REPORTED_ERRORS - progress.errors.size()))));
+    }
+
+    private ParsedLine parse(Line line, XtbCsvParser parser, Map<String, Optional<Instrument>> instruments) {
+        try {
+            XtbPosition position = parser.parse(line.text());
+            Optional<Instrument> instrument = instruments.computeIfAbsent(position.ticker(),
+                    instrumentService::getInstrumentByTicker);
+            if (instrument.isEmpty()) {
+                return new ParsedLine(null, "Line " + line.number() + ": unknown instrument " + position.ticker());
+            }
+            return new ParsedLine(position.toTransactions(instrument.get().id()), null);
+        } catch (RuntimeException e) {
+            return new ParsedLine(null, "Line " + line.number() + ": " + e.getMessage());
+        }
+    }
+}
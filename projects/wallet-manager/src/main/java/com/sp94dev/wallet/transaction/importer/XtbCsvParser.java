@@ -0,0 +1,120 @@
+package com.sp94dev.wallet.transaction.importer;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.sp94dev.wallet.transaction.TransactionType;
+
+/**
+ * Stateless parser for XTB "closed/open positions" CSV exports. Columns are located by
+ * header name, so column order and extra columns do not matter. Both {@code ,} and
+ * {@code ;} separated files are accepted; the latter may use decimal commas.
+ */
+final class XtbCsvParser {
+    private static final DateTimeFormatter XTB_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final char delimiter;
+    private final int symbol;
+    private final int type;
+    private final int volume;
+    private final int openTime;
+    private final int openPrice;
+    private final int closeTime;
+    private final int closePrice;
+
+    private XtbCsvParser(char delimiter, List<String> header) {
+        this.delimiter = delimiter;
+        this.symbol = requiredColumn(header, "symbol");
+        this.type = requiredColumn(header, "type");
+        this.volume = requiredColumn(header, "volume");
+        this.openTime = requiredColumn(header, "open time");
+        this.openPrice = requiredColumn(header, "open price");
+        this.closeTime = header.indexOf("close time");
+        this.closePrice = header.indexOf("close price");
+    }
+
+    static XtbCsvParser fromHeader(String headerLine) {
+        String header = headerLine.startsWith("\uFEFF") ? headerLine.substring(1) : headerLine;
+        char delimiter = header.indexOf(';') >= 0 ? ';' : ',';
+        List<String> columns = split(header, delimiter).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        return new XtbCsvParser(delimiter, columns);
+    }
+
+    XtbPosition parse(String line) {
+        List<String> fields = split(line, delimiter);
+        String closeDate = optional(fields, closeTime);
+        String close = optional(fields, closePrice);
+        return new XtbPosition(
+                required(fields, symbol),
+                TransactionType.valueOf(required(fields, type).toUpperCase(Locale.ROOT)),
+                parseNumber(required(fields, volume)),
+                parseDate(required(fields, openTime)),
+                parseNumber(required(fields, openPrice)),
+                closeDate != null ? parseDate(closeDate) : null,
+                close != null ? parseNumber(close) : null);
+    }
+
+    private double parseNumber(String value) {
+        String normalized = delimiter == ';' ? value.replace(',', '.') : value;
+        return Double.parseDouble(normalized.replace(" ", ""));
+    }
+
+    // "06.02.2024 15:30:00" in XTB exports, ISO "2024-02-06[T...]" accepted as well
+    private static LocalDate parseDate(String value) {
+        String date = value.length() > 10 ? value.substring(0, 10) : value;
+        return date.indexOf('.') > 0 ? LocalDate.parse(date, XTB_DATE) : LocalDate.parse(date);
+    }
+
+    private static String required(List<String> fields, int column) {
+        String value = optional(fields, column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value in column " + (column + 1));
+        }
+        return value;
+    }
+
+    private static String optional(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static int requiredColumn(List<String> header, String name) {
+        int index = header.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("Missing column '" + name + "' in CSV header");
+        }
+        return index;
+    }
+
+    private static List<String> split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == delimiter && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sp94dev.wallet.transaction.importer;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionType;
+
+/**
+ * One row of an XTB position history export. A closed position becomes two transactions
+ * (open + opposite close), an open position becomes one.
+ */
+record XtbPosition(
+        String symbol,
+        TransactionType type,
+        double volume,
+        LocalDate openDate,
+        double openPrice,
+        LocalDate closeDate,
+        Double closePrice) {
+
+    /** XTB symbols carry a market suffix, e.g. {@code AAPL.US}. */
+    String ticker() {
+        int dot = symbol.indexOf('.');
+        return dot > 0 ? symbol.substring(0, dot) : symbol;
+    }
+
+    boolean isClosed() {
+        return closeDate != null && closePrice != null;
+    }
+
+    List<Transaction> toTransactions(Long instrumentId) {
+        Transaction open = new Transaction(null, instrumentId, type, volume, openPrice, openDate);
+        if (!isClosed()) {
+            return List.of(open);
+        }
+        TransactionType closeType = type == TransactionType.BUY ? TransactionType.SELL : TransactionType.BUY;
+        return List.of(open, new Transaction(null, instrumentId, closeType, volume, closePrice, closeDate));
+    }
+}
@@ -0,0 +1,182 @@
+package com.sp94dev.wallet.instrument;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.sp94dev.wallet.instrument.InstrumentWriteResult.Status;
+
+class InMemoryInstrumentRepositoryTests {
+
+	private final InMemoryInstrumentRepository repository = new InMemoryInstrumentRepository();
+
+	@Test
+	void findByCriteriaIntersectsIndexes() {
+		assertThat(tickers(repository.findByCriteria("STOCK", "USD", null, "NASDAQ")))
+				.containsExactlyInAnyOrder("AAPL", "TSLA", "AMZN", "MSFT");
+		assertThat(tickers(repository.findByCriteria("ETF", null, "goo", null)))
+				.containsExactly("GOOGL");
+		assertThat(repository.findByCriteria("STOCK", "EUR", null, null)).isEmpty();
+		assertThat(repository.findByCriteria(null, null, null, null)).hasSize(5);
+	}
+
+	@Test
+	void indexesFollowUpdatesAndDeletes() {
+		repository.update(3L, new Instrument(null, "TSLA", "EUR", "XETRA", "STOCK"), null);
+		repository.delete(4L, null);
+
+		assertThat(tickers(repository.findByCriteria(null, "EUR", "ts", "XETRA"))).containsExactly("TSLA");
+		assertThat(tickers(repository.findByCriteria("STOCK", "USD", null, null)))
+				.containsExactlyInAnyOrder("AAPL", "MSFT");
+		assertThat(repository.findByCriteria(null, null, "AMZN", null)).isEmpty();
+	}
+
+	@Test
+	void batchOperationsReportPerItemOutcome() {
+		List<Instrument> saved = repository.saveAll(List.of(
+				new Instrument(null, "NVDA", "USD", "NASDAQ", "STOCK"),
+				new Instrument(null, "SAP", "EUR", "XETRA", "STOCK")));
+		assertThat(saved).extracting(Instrument::id).doesNotContainNull().doesNotHaveDuplicates();
+		Long sap = saved.get(1).id();
+
+		List<InstrumentWriteResult> replaced = repository.updateAll(List.of(
+				new Instrument(sap, "SAP", "USD", "NYSE", "STOCK"),
+				new Instrument(999L, "NOPE", "USD", "NYSE", "STOCK"),
+				new Instrument(sap, "SAP", "USD", "XETRA", "STOCK", 1L)));
+		assertThat(replaced).extracting(InstrumentWriteResult::status).containsExactly(Status.APPLIED,
+				Status.NOT_FOUND, Status.VERSION_MISMATCH);
+		assertThat(replaced.get(0).instrument().version()).isEqualTo(2L);
+		assertThat(replaced.get(2).instrument()).isEqualTo(replaced.get(0).instrument());
+		assertThat(tickers(repository.findByCriteria(null, null, null, "NYSE"))).containsExactly("SAP");
+
+		List<InstrumentWriteResult> removed = repository.deleteAll(List.of(
+				InstrumentDeletion.of(saved.get(0).id()),
+				InstrumentDeletion.of(999L),
+				new InstrumentDeletion(sap, 1L)));
+		assertThat(removed).extracting(InstrumentWriteResult::status).containsExactly(Status.APPLIED,
+				Status.NOT_FOUND, Status.VERSION_MISMATCH);
+		assertThat(removed.get(0).instrument()).isEqualTo(saved.get(0));
+		assertThat(removed.get(2).instrument().version()).isEqualTo(2L);
+		assertThat(repository.findByCriteria(null, null, "NVDA", null)).isEmpty();
+		assertThat(repository.findById(sap)).isPresent();
+	}
+
+	@Test
+	void batchesThatApplyNothingKeepTheVersion() {
+		long version = repository.version();
+		List<Instrument> snapshot = repository.findAll();
+
+		repository.updateAll(List.of(
+				new Instrument(999L, "NOPE", "USD", "NYSE", "STOCK"),
+				new Instrument(1L, "AAPL", "USD", "NYSE", "STOCK", 7L)));
+		repository.deleteAll(List.of(InstrumentDeletion.of(999L), new InstrumentDeletion(2L, 7L)));
+
+		assertThat(repository.version()).isEqualTo(version);
+		assertThat(repository.findAll()).isSameAs(snapshot);
+		repository.deleteAll(List.of(InstrumentDeletion.of(999L), new InstrumentDeletion(2L, 1L)));
+		assertThat(repository.version()).isGreaterThan(version);
+	}
+
+	@Test
+	void updateAndDeleteAreConditionalOnTheVersion() {
+		Instrument saved = repository.save(new Instrument(null, "NVDA", "USD", "NASDAQ", "STOCK"));
+		assertThat(saved.id()).isEqualTo(6L);
+		assertThat(saved.version()).isEqualTo(1L);
+
+		InstrumentWriteResult updated = repository.update(saved.id(),
+				new Instrument(null, "NVDA", "USD", "NYSE", "STOCK"), 1L);
+		assertThat(updated.status()).isEqualTo(Status.APPLIED);
+		assertThat(updated.instrument().version()).isEqualTo(2L);
+
+		InstrumentWriteResult stale = repository.update(saved.id(),
+				new Instrument(null, "NVDA", "EUR", "XETRA", "STOCK"), 1L);
+		assertThat(stale.status()).isEqualTo(Status.VERSION_MISMATCH);
+		assertThat(stale.instrument()).isEqualTo(updated.instrument());
+		assertThat(repository.delete(saved.id(), 1L).status()).isEqualTo(Status.VERSION_MISMATCH);
+
+		assertThat(repository.update(999L, saved, null).status()).isEqualTo(Status.NOT_FOUND);
+		assertThat(repository.findById(999L)).isEmpty();
+		assertThat(repository.delete(saved.id(), 2L).status()).isEqualTo(Status.APPLIED);
+		assertThat(repository.delete(saved.id(), null).status()).isEqualTo(Status.NOT_FOUND);
+	}
+
+	@Test
+	void concurrentCompareAndSetUpdatesLoseNothing() throws Exception {
+		int threads = 8;
+		int updatesPerThread = 200;
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < updatesPerThread; i++) {
+						InstrumentWriteResult result;
+						do {
+							Instrument current = repository.findById(1L).orElseThrow();
+							result = repository.update(1L, current, current.version());
+						} while (result.status() == Status.VERSION_MISMATCH);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		assertThat(repository.findById(1L).orElseThrow().version()).isEqualTo(1L + threads * updatesPerThread);
+		assertThat(repository.findByCriteria(null, null, "AAPL", null)).hasSize(1);
+	}
+
+	@Test
+	void findAllSharesOneSnapshotUntilTheNextWrite() {
+		List<Instrument> before = repository.findAll();
+		long version = repository.version();
+
+		assertThat(repository.findAll()).isSameAs(before);
+		assertThat(repository.findByCriteria(null, null, null, null)).isSameAs(before);
+		assertThat(before).extracting(Instrument::id).containsExactly(1L, 2L, 3L, 4L, 5L);
+
+		repository.delete(2L, null);
+
+		assertThat(repository.version()).isGreaterThan(version);
+		assertThat(repository.findAll()).extracting(Instrument::id).containsExactly(1L, 3L, 4L, 5L);
+		assertThat(before).hasSize(5);
+
+		// several writes between reads cost one rebuild, done by the next reader
+		Instrument nvda = repository.save(new Instrument(null, "NVDA", "USD", "NASDAQ", "STOCK"));
+		repository.update(1L, new Instrument(null, "AAPL", "USD", "NYSE", "STOCK"), null);
+		repository.delete(5L, null);
+		List<Instrument> after = repository.findAll();
+		assertThat(after).extracting(Instrument::id).containsExactly(1L, 3L, 4L, nvda.id());
+		assertThat(after.get(0).market()).isEqualTo("NYSE");
+		assertThat(repository.findAll()).isSameAs(after);
+	}
+
+	private static List<String> tickers(List<Instrument> instruments) {
+		return instruments.stream().map(Instrument::ticker).toList();
+	}
+	@Test
+	void searchRanksExactThenPrefixThenSubstringThenFuzzy() {
+		repository.update(3L, new Instrument(null, "AAP", "USD", "NYSE", "STOCK"), null);
+		repository.update(4L, new Instrument(null, "MAAPX", "USD", "NASDAQ", "ETF"), null);
+
+		assertThat(tickers(repository.search("aap", 10))).containsExactly("AAP", "AAPL", "MAAPX");
+		assertThat(tickers(repository.search("AAPL", 1))).containsExactly("AAPL");
+		assertThat(tickers(repository.search("gogl", 10))).containsExactly("GOOGL");
+		assertThat(repository.search("xyz", 10)).isEmpty();
+	}
+
+	@Test
+	void searchFollowsUpdatesAndDeletes() {
+		repository.update(1L, new Instrument(null, "APPLE", "USD", "NASDAQ", "STOCK"), null);
+		repository.delete(2L, null);
+
+		assertThat(tickers(repository.search("app", 10))).containsExactly("APPLE");
+		assertThat(repository.search("aapl", 10)).isEmpty();
+		assertThat(repository.search("goo", 10)).isEmpty();
+	}
+}
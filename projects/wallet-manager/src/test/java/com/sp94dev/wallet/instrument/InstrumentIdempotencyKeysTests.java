@@ -0,0 +1,53 @@
+package com.sp94dev.wallet.instrument;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class InstrumentIdempotencyKeysTests {
+
+	private final InMemoryInstrumentRepository repository = new InMemoryInstrumentRepository();
+
+	private final Instrument request = new Instrument(null, "NVDA", "USD", "NASDAQ", "STOCK");
+
+	@Test
+	void retryWithTheSameKeyReplaysTheFirstCreate() {
+		InstrumentIdempotencyKeys keys = keys(Duration.ofHours(1));
+
+		InstrumentIdempotencyKeys.Outcome first = keys.createOnce("k1", request, () -> repository.save(request));
+		InstrumentIdempotencyKeys.Outcome retry = keys.createOnce("k1", request, () -> repository.save(request));
+
+		assertThat(first.replayed()).isFalse();
+		assertThat(retry.replayed()).isTrue();
+		assertThat(retry.instrument()).isEqualTo(first.instrument());
+		assertThat(repository.count()).isEqualTo(6);
+	}
+
+	@Test
+	void reusingAKeyWithADifferentBodyIsRejected() {
+		InstrumentIdempotencyKeys keys = keys(Duration.ofHours(1));
+		keys.createOnce("k1", request, () -> repository.save(request));
+
+		Instrument other = new Instrument(null, "AMD", "USD", "NASDAQ", "STOCK");
+		assertThatIllegalStateException().isThrownBy(() -> keys.createOnce("k1", other, () -> repository.save(other)));
+		assertThat(repository.count()).isEqualTo(6);
+	}
+
+	@Test
+	void expiredKeyCreatesAgain() {
+		InstrumentIdempotencyKeys keys = keys(Duration.ZERO);
+
+		keys.createOnce("k1", request, () -> repository.save(request));
+		InstrumentIdempotencyKeys.Outcome again = keys.createOnce("k1", request, () -> repository.save(request));
+
+		assertThat(again.replayed()).isFalse();
+		assertThat(repository.count()).isEqualTo(7);
+	}
+
+	private static InstrumentIdempotencyKeys keys(Duration ttl) {
+		return new InstrumentIdempotencyKeys(new InstrumentIdempotencyProperties(ttl, 10_000));
+	}
+}
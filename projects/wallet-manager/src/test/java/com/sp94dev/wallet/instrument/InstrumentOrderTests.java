@@ -0,0 +1,60 @@
+package com.sp94dev.wallet.instrument;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.sp94dev.wallet.instrument.InstrumentOrder.SortKey;
+
+class InstrumentOrderTests {
+
+	private static final Map<String, Function<Instrument, String>> FIELDS = Map.of(
+			"ticker", Instrument::ticker,
+			"market", Instrument::market,
+			"type", Instrument::type);
+
+	@Test
+	void parsesMultipleKeysAndDescendingPrefixes() {
+		assertThat(InstrumentOrder.parse("type, -ticker,market", FIELDS).keys()).containsExactly(
+				new SortKey("type", false), new SortKey("ticker", true), new SortKey("market", false));
+		assertThat(InstrumentOrder.parse("-ticker", FIELDS).keys()).containsExactly(new SortKey("ticker", true));
+	}
+
+	@Test
+	void onlyAscendingTickerAloneUsesTheTickerIndex() {
+		assertThat(InstrumentOrder.parse("ticker", FIELDS).isTickerAscending()).isTrue();
+		assertThat(InstrumentOrder.parse("-ticker", FIELDS).isTickerAscending()).isFalse();
+		assertThat(InstrumentOrder.parse("ticker,type", FIELDS).isTickerAscending()).isFalse();
+		assertThat(InstrumentOrder.parse(" ", FIELDS)).isSameAs(InstrumentOrder.UNSORTED);
+		assertThat(InstrumentOrder.parse(null, FIELDS).isUnsorted()).isTrue();
+	}
+
+	@Test
+	void unknownOrEmptyFieldsAreRejected() {
+		assertThatIllegalArgumentException().isThrownBy(() -> InstrumentOrder.parse("price", FIELDS))
+				.withMessageContaining("'price'");
+		assertThatIllegalArgumentException().isThrownBy(() -> InstrumentOrder.parse("--ticker", FIELDS));
+		assertThatIllegalArgumentException().isThrownBy(() -> InstrumentOrder.parse("ticker,,type", FIELDS));
+		assertThatIllegalArgumentException().isThrownBy(() -> InstrumentOrder.parse("Ticker", FIELDS));
+	}
+
+	@Test
+	void comparatorPutsNullsLastInBothDirectionsAndBreaksTiesById() {
+		Instrument a = new Instrument(1L, "B", null, null, "ETF");
+		Instrument b = new Instrument(2L, "A", null, null, "ETF");
+		Instrument c = new Instrument(3L, null, null, null, "ETF");
+		Instrument d = new Instrument(4L, "B", null, null, "ETF");
+
+		assertThat(Stream.of(d, c, b, a)
+				.sorted(InstrumentOrder.parse("-ticker", FIELDS).comparator(FIELDS)))
+				.containsExactly(a, d, b, c);
+		assertThat(Stream.of(d, c, b, a)
+				.sorted(InstrumentOrder.parse("type,ticker", FIELDS).comparator(FIELDS)))
+				.containsExactly(b, a, d, c);
+	}
+}
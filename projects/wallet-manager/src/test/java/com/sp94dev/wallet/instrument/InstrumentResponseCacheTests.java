@@ -0,0 +1,131 @@
+package com.sp94dev.wallet.instrument;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.sp94dev.wallet.instrument.InstrumentResponseCache.CachedResponse;
+import com.sp94dev.wallet.instrument.dto.InstrumentResponse;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class InstrumentResponseCacheTests {
+
+	private final InMemoryInstrumentRepository repository = new InMemoryInstrumentRepository();
+	private final InstrumentResponseCache cache = new InstrumentResponseCache(repository, JsonMapper.builder().build(),
+			new InstrumentCacheProperties(DataSize.ofMegabytes(1), Duration.ZERO));
+	private final AtomicInteger queries = new AtomicInteger();
+
+	private Supplier<List<InstrumentResponse>> query() {
+		return () -> {
+			queries.incrementAndGet();
+			return repository.findAll().stream().map(InstrumentResponse::from).toList();
+		};
+	}
+
+	@Test
+	void singleInstrumentIsInvalidatedOnlyByItsOwnWrite() {
+		CachedResponse first = cache.getById(1L).orElseThrow();
+
+		repository.update(2L, new Instrument(null, "GOOG", "USD", "NASDAQ", "STOCK"), null);
+		assertThat(cache.getById(1L)).containsSame(first);
+
+		repository.update(1L, new Instrument(null, "AAPL", "USD", "NYSE", "STOCK"), null);
+		CachedResponse updated = cache.getById(1L).orElseThrow();
+		assertThat(updated.etag()).isNotEqualTo(first.etag());
+		assertThat(new String(updated.body())).contains("\"market\":\"NYSE\"");
+
+		repository.delete(1L, null);
+		assertThat(cache.getById(1L)).isEmpty();
+	}
+
+	@Test
+	void listsAreKeyedByNormalizedQueryAndDroppedOnAnyWrite() {
+		CachedResponse first = cache.getList("STOCK", null, "AA", null, "ticker, -type", 10, query());
+		assertThat(cache.getList("STOCK", null, "aa", null, "ticker,-type", 10.0, query())).isSameAs(first);
+		assertThat(queries).hasValue(1);
+
+		repository.save(new Instrument(null, "NVDA", "USD", "NASDAQ", "STOCK"));
+		CachedResponse afterWrite = cache.getList("STOCK", null, "AA", null, "ticker,-type", 10, query());
+
+		assertThat(queries).hasValue(2);
+		assertThat(afterWrite.etag()).isNotEqualTo(first.etag());
+		assertThat(cache.hits()).isEqualTo(1);
+		assertThat(cache.misses()).isEqualTo(2);
+	}
+
+	@Test
+	void boundedByBodyBytesEvictingTheLeastRecentlyUsed() {
+		cache.getById(1L);
+		long entryBytes = cache.bytes();
+		InstrumentResponseCache small = new InstrumentResponseCache(repository, JsonMapper.builder().build(),
+				new InstrumentCacheProperties(DataSize.ofBytes(entryBytes * 7 / 2), Duration.ZERO));
+
+		small.getById(1L);
+		small.getById(2L);
+		small.getById(3L);
+		small.getById(1L);
+		small.getById(4L);
+		assertThat(small.bytes()).isLessThanOrEqualTo(entryBytes * 7 / 2);
+
+		// 2 was used least recently, 1 was read again before 4 came in
+		long hits = small.hits();
+		small.getById(1L);
+		small.getById(4L);
+		assertThat(small.hits()).isEqualTo(hits + 2);
+		small.getById(2L);
+		assertThat(small.hits()).isEqualTo(hits + 2);
+	}
+
+	@Test
+	void bodyLargerThanTheWholeCacheIsServedButNotKept() {
+		InstrumentResponseCache tiny = new InstrumentResponseCache(repository, JsonMapper.builder().build(),
+				new InstrumentCacheProperties(DataSize.ofBytes(64), Duration.ZERO));
+
+		assertThat(tiny.getList(null, null, null, null, null, null, query()).body()).isNotEmpty();
+		tiny.getList(null, null, null, null, null, null, query());
+
+		assertThat(queries).hasValue(2);
+		assertThat(tiny.bytes()).isZero();
+	}
+
+	@Test
+	void concurrentReadersAndWritersStayWithinTheLimit() throws Exception {
+		cache.getList(null, null, null, null, null, 1, query());
+		long limit = cache.bytes() * 20;
+		InstrumentResponseCache bounded = new InstrumentResponseCache(repository, JsonMapper.builder().build(),
+				new InstrumentCacheProperties(DataSize.ofBytes(limit), Duration.ZERO));
+		try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 0; i < 2000; i++) {
+						int limitParam = 1 + random.nextInt(100);
+						CachedResponse response = bounded.getList(null, null, null, null, null, limitParam,
+								() -> repository.findAll().stream().limit(limitParam).map(InstrumentResponse::from)
+										.toList());
+						assertThat(response.body()).isNotEmpty();
+						assertThat(bounded.getById(1L + random.nextInt(5))).isPresent();
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		assertThat(bounded.bytes()).isPositive().isLessThanOrEqualTo(limit);
+		assertThat(bounded.hits() + bounded.misses()).isEqualTo(8 * 2000 * 2);
+	}
+}
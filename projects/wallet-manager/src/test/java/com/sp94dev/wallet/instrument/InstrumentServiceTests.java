@@ -0,0 +1,121 @@
+package com.sp94dev.wallet.instrument;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InstrumentServiceTests {
+
+	private static final Map<String, Function<Instrument, String>> FIELDS = Map.of(
+			"ticker", Instrument::ticker,
+			"market", Instrument::market,
+			"type", Instrument::type,
+			"currency", Instrument::currency);
+	private static final List<String> SORTS = List.of("ticker", "-ticker", "type,-ticker", "-market, currency",
+			"currency,type,market", "-type,-currency,ticker");
+
+	private final InMemoryInstrumentRepository repository = new InMemoryInstrumentRepository();
+	private final InstrumentService service = new InstrumentService(repository);
+
+	@BeforeEach
+	void setUp() {
+		// few distinct values, so most rows tie on the sort keys and fall back to id; some are null
+		Random random = new Random(5);
+		String[] tickers = { "AAPL", "ABC", "XOM", "ZZ", "MSFT", null };
+		String[] currencies = { "USD", "EUR", "PLN", null };
+		String[] markets = { "NASDAQ", "NYSE", "XETRA", "GPW" };
+		String[] types = { "STOCK", "ETF", "BOND", null };
+		List<Instrument> instruments = new ArrayList<>();
+		for (int i = 0; i < 600; i++) {
+			instruments.add(new Instrument(null, tickers[random.nextInt(tickers.length)],
+					currencies[random.nextInt(currencies.length)], markets[random.nextInt(markets.length)],
+					types[random.nextInt(types.length)]));
+		}
+		repository.saveAll(instruments);
+	}
+
+	@Test
+	void heapTopKMatchesAPlainSort() {
+		// limit * 8 < rows: the bounded heap path
+		for (String sort : SORTS) {
+			for (int limit : new int[] { 1, 5, 40 }) {
+				assertThat(service.getAllInstruments(null, null, null, null, sort, limit))
+						.as("sort %s, limit %d", sort, limit)
+						.isEqualTo(plainSort(repository.findAll(), sort, limit));
+			}
+		}
+		assertThat(service.getAllInstruments("STOCK", "USD", null, null, "-market,ticker", 3))
+				.isEqualTo(plainSort(repository.findByCriteria("STOCK", "USD", null, null), "-market,ticker", 3));
+		assertThat(service.getAllInstruments(null, null, null, null, "type", 0)).isEmpty();
+	}
+
+	@Test
+	void fullSortMatchesAPlainSort() {
+		for (String sort : SORTS) {
+			for (Integer limit : new Integer[] { 100, 605, null }) {
+				assertThat(service.getAllInstruments(null, null, null, null, sort, limit))
+						.as("sort %s, limit %s", sort, limit)
+						.isEqualTo(plainSort(repository.findAll(), sort, limit != null ? limit : Integer.MAX_VALUE));
+			}
+		}
+	}
+
+	@Test
+	void tickerIndexFastPathMatchesAPlainSort() {
+		repository.update(3L, new Instrument(null, "AAA", "USD", "NASDAQ", "STOCK"), null);
+		repository.delete(20L, null);
+		repository.update(30L, new Instrument(null, null, "USD", "NASDAQ", "STOCK"), null);
+
+		for (int limit : new int[] { 0, 1, 7, 120, 605 }) {
+			assertThat(repository.findAllOrderedByTicker(limit)).as("limit %d", limit)
+					.isEqualTo(plainSort(repository.findAll(), "ticker", limit));
+			assertThat(service.getAllInstruments(null, null, null, null, "ticker", limit))
+					.isEqualTo(plainSort(repository.findAll(), "ticker", limit));
+		}
+		assertThat(service.getAllInstruments(null, null, null, null, " ticker ", null))
+				.isEqualTo(plainSort(repository.findAll(), "ticker", Integer.MAX_VALUE));
+	}
+
+	@Test
+	void invalidSortOrLimitIsRejected() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> service.getAllInstruments(null, null, null, null, "price", 10))
+				.withMessageContaining("price");
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> service.getAllInstruments(null, null, null, null, "ticker,-", 10));
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> service.getAllInstruments(null, null, null, null, "ticker", -1));
+	}
+
+	@Test
+	void unsortedKeepsIdOrder() {
+		assertThat(service.getAllInstruments(null, null, null, null, "", 10))
+				.isEqualTo(repository.findAll().subList(0, 10));
+		assertThat(service.getAllInstruments(null, null, null, null, null, null)).isEqualTo(repository.findAll());
+	}
+
+	// Reference order built independently of InstrumentOrder: nulls last, then by id
+	private static List<Instrument> plainSort(List<Instrument> instruments, String sort, int limit) {
+		Comparator<Instrument> comparator = null;
+		for (String token : sort.split(",")) {
+			String field = token.trim();
+			boolean descending = field.startsWith("-");
+			Function<Instrument, String> value = FIELDS.get(descending ? field.substring(1) : field);
+			Comparator<Instrument> next = Comparator.comparing(value,
+					Comparator.nullsLast(descending ? Comparator.<String>reverseOrder() : Comparator.<String>naturalOrder()));
+			comparator = comparator == null ? next : comparator.thenComparing(next);
+		}
+		List<Instrument> sorted = new ArrayList<>(instruments);
+		sorted.sort(comparator.thenComparing(Instrument::id));
+		return sorted.subList(0, Math.min(limit, sorted.size()));
+	}
+}
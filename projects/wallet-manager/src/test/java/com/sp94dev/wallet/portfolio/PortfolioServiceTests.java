@@ -0,0 +1,78 @@
+package com.sp94dev.wallet.portfolio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.sp94dev.wallet.transaction.InMemoryTransactionRepository;
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionService;
+import com.sp94dev.wallet.transaction.TransactionType;
+
+class PortfolioServiceTests {
+
+	private final InMemoryTransactionRepository repository = new InMemoryTransactionRepository();
+	private final PortfolioService portfolio = new PortfolioService(repository, null, null);
+	private final TransactionService transactions = new TransactionService(repository, portfolio, null);
+
+	@Test
+	void batchUpdatesAndDeletesRebuildOnlyTheAffectedInstruments() {
+		List<Transaction> batch = new ArrayList<>();
+		for (int i = 0; i < 60; i++) {
+			batch.add(new Transaction(null, (long) i % 3, i % 4 == 3 ? TransactionType.SELL : TransactionType.BUY,
+					1.0 + i % 5, 10.0 + i, i % 10 == 0 ? null : LocalDate.of(2024, 1, 1).plusDays(60 - i)));
+		}
+		transactions.createAll(batch);
+
+		// moves id 5 from instrument 2 to 1 and drops an undated and a dated row of instrument 0
+		transactions.updateAll(List.of(
+				new Transaction(5L, 1L, TransactionType.BUY, 3.0, 20.0, LocalDate.of(2024, 6, 1))));
+		transactions.deleteAll(List.of(1L, 4L, 999L));
+
+		PortfolioService replayed = new PortfolioService(repository, null, null);
+		replayed.rebuild();
+		for (long instrumentId = 0; instrumentId < 3; instrumentId++) {
+			assertThat(portfolio.position(instrumentId)).as("instrument %d", instrumentId)
+					.isEqualTo(replayed.position(instrumentId));
+		}
+	}
+
+	@Test
+	void incrementalApplyMatchesARebuildFromHistory() {
+		Random random = new Random(7);
+		for (int i = 0; i < 500; i++) {
+			// sells are as likely as buys, so positions go flat, short and back long
+			TransactionType type = random.nextBoolean() ? TransactionType.BUY : TransactionType.SELL;
+			transactions.create(new Transaction(null, (long) random.nextInt(4), type, 1.0 + random.nextInt(20),
+					50.0 + random.nextInt(100), LocalDate.of(2024, 1, 1).plusDays(i)));
+		}
+		transactions.create(new Transaction(null, 1L, TransactionType.BUY, null, 10.0, LocalDate.of(2024, 1, 1)));
+
+		PortfolioService replayed = new PortfolioService(repository, null, null);
+		replayed.rebuild();
+		for (long instrumentId = 0; instrumentId < 4; instrumentId++) {
+			assertThat(portfolio.position(instrumentId)).as("instrument %d", instrumentId)
+					.isEqualTo(replayed.position(instrumentId));
+		}
+	}
+
+	@Test
+	void oversellIsKeptAsAShortAcrossARebuild() {
+		transactions.create(new Transaction(null, 2L, TransactionType.BUY, 10.0, 100.0, LocalDate.of(2024, 1, 1)));
+		transactions.create(new Transaction(null, 2L, TransactionType.SELL, 15.0, 120.0, LocalDate.of(2024, 1, 2)));
+		transactions.create(new Transaction(null, 2L, TransactionType.BUY, 8.0, 110.0, LocalDate.of(2024, 1, 3)));
+
+		Position position = portfolio.position(2L);
+		assertThat(position.quantity()).isEqualTo(3.0);
+		assertThat(position.costBasis()).isEqualTo(330.0);
+		assertThat(position.realizedPnl()).isEqualTo(250.0);
+
+		portfolio.rebuild();
+		assertThat(portfolio.position(2L)).isEqualTo(position);
+	}
+}
@@ -0,0 +1,104 @@
+package com.sp94dev.wallet.portfolio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.LocalDate;
+
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionType;
+
+class PositionTests {
+
+	private static final Offset<Double> CENT = within(1e-9);
+
+	@Test
+	void buysAverageTheirCost() {
+		Position position = Position.empty(1L).apply(buy(10, 100)).apply(buy(30, 120));
+
+		assertThat(position.quantity()).isEqualTo(40);
+		assertThat(position.costBasis()).isCloseTo(4600, CENT);
+		assertThat(position.averageCost()).isCloseTo(115, CENT);
+		assertThat(position.realizedPnl()).isZero();
+		assertThat(position.lastPrice()).isEqualTo(120);
+	}
+
+	@Test
+	void partialSellRealizesAgainstTheAverageAndKeepsIt() {
+		Position position = Position.empty(1L).apply(buy(10, 100)).apply(buy(10, 200)).apply(sell(5, 180));
+
+		assertThat(position.quantity()).isEqualTo(15);
+		assertThat(position.averageCost()).isCloseTo(150, CENT);
+		assertThat(position.costBasis()).isCloseTo(2250, CENT);
+		assertThat(position.realizedPnl()).isCloseTo(150, CENT);
+
+		// buying after a partial sell re-averages only the units still held
+		position = position.apply(buy(5, 110));
+		assertThat(position.quantity()).isEqualTo(20);
+		assertThat(position.averageCost()).isCloseTo(140, CENT);
+	}
+
+	@Test
+	void sellingDownToZeroClosesThePosition() {
+		Position position = Position.empty(1L).apply(buy(3, 10)).apply(buy(7, 20)).apply(sell(4, 25))
+				.apply(sell(6, 12));
+
+		assertThat(position.quantity()).isZero();
+		assertThat(position.costBasis()).isZero();
+		assertThat(position.averageCost()).isZero();
+		assertThat(position.realizedPnl()).isCloseTo(4 * 8 + 6 * -5, CENT);
+
+		position = position.apply(buy(2, 50));
+		assertThat(position.costBasis()).isCloseTo(100, CENT);
+		assertThat(position.averageCost()).isCloseTo(50, CENT);
+	}
+
+	@Test
+	void oversellOpensAShortThatTheNextBuyCovers() {
+		Position position = Position.empty(1L).apply(buy(10, 100)).apply(sell(15, 120));
+
+		// the 10 held are closed at their cost, the other 5 are a short sold at 120
+		assertThat(position.quantity()).isEqualTo(-5);
+		assertThat(position.costBasis()).isCloseTo(-600, CENT);
+		assertThat(position.averageCost()).isCloseTo(120, CENT);
+		assertThat(position.realizedPnl()).isCloseTo(200, CENT);
+
+		// covering 3 at 110 earns 10 each; the cover is not folded into a long cost basis
+		position = position.apply(buy(3, 110));
+		assertThat(position.quantity()).isEqualTo(-2);
+		assertThat(position.costBasis()).isCloseTo(-240, CENT);
+		assertThat(position.realizedPnl()).isCloseTo(230, CENT);
+
+		// buying 6 covers the last 2 at a loss and opens a long of 4 at the buy price only
+		position = position.apply(buy(6, 130));
+		assertThat(position.quantity()).isEqualTo(4);
+		assertThat(position.costBasis()).isCloseTo(520, CENT);
+		assertThat(position.averageCost()).isCloseTo(130, CENT);
+		assertThat(position.realizedPnl()).isCloseTo(210, CENT);
+	}
+
+	@Test
+	void sellingShortFromFlatAddsToTheShortAtTheAveragePrice() {
+		Position position = Position.empty(1L).apply(sell(2, 50)).apply(sell(2, 70));
+
+		assertThat(position.quantity()).isEqualTo(-4);
+		assertThat(position.averageCost()).isCloseTo(60, CENT);
+		assertThat(position.realizedPnl()).isZero();
+
+		position = position.apply(buy(4, 40));
+		assertThat(position.quantity()).isZero();
+		assertThat(position.costBasis()).isZero();
+		assertThat(position.realizedPnl()).isCloseTo(80, CENT);
+	}
+
+	private static Transaction buy(double quantity, double price) {
+		return new Transaction(null, 1L, TransactionType.BUY, quantity, price, LocalDate.of(2024, 1, 1));
+	}
+
+	private static Transaction sell(double quantity, double price) {
+		return new Transaction(null, 1L, TransactionType.SELL, quantity, price, LocalDate.of(2024, 1, 1));
+	}
+}
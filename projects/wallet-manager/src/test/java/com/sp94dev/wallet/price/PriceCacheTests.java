@@ -0,0 +1,84 @@
+package com.sp94dev.wallet.price;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.sp94dev.wallet.instrument.InMemoryInstrumentRepository;
+
+class PriceCacheTests {
+
+	private final AtomicInteger fetches = new AtomicInteger();
+	private final AtomicLong now = new AtomicLong();
+	private final PriceSource source = instrument -> {
+		fetches.incrementAndGet();
+		return Optional.of(new Price(instrument.id(), 100.0 + instrument.id(), Instant.EPOCH));
+	};
+
+	@Test
+	void evictsLeastRecentlyUsedEntry() {
+		PriceCache cache = cache(source, 2);
+
+		cache.get(1L);
+		cache.get(2L);
+		cache.get(1L);
+		cache.get(3L);
+		cache.get(1L);
+		cache.get(2L);
+
+		assertThat(fetches).hasValue(4);
+		assertThat(cache.stats().evictions()).isEqualTo(2);
+		assertThat(cache.stats().hits()).isEqualTo(2);
+	}
+
+	@Test
+	void expiresEntriesAfterTtl() {
+		PriceCache cache = cache(source, 10);
+
+		cache.get(1L);
+		now.addAndGet(Duration.ofMinutes(4).toNanos());
+		cache.get(1L);
+		now.addAndGet(Duration.ofMinutes(2).toNanos());
+
+		assertThat(cache.get(1L)).map(Price::price).contains(101.0);
+		assertThat(fetches).hasValue(2);
+		assertThat(cache.stats().expirations()).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentMissesShareOneFetch() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		PriceCache cache = cache(instrument -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return source.fetch(instrument);
+		}, 10);
+
+		CompletableFuture<Optional<Price>> first = CompletableFuture.supplyAsync(() -> cache.get(3L));
+		CompletableFuture<Optional<Price>> second = CompletableFuture.supplyAsync(() -> cache.get(3L));
+		while (cache.stats().misses() < 2) {
+			Thread.onSpinWait();
+		}
+		release.countDown();
+
+		assertThat(first.get()).isEqualTo(second.get());
+		assertThat(fetches).hasValue(1);
+	}
+
+	private PriceCache cache(PriceSource priceSource, int maxSize) {
+		return new PriceCache(priceSource, new InMemoryInstrumentRepository(),
+				new PriceProperties(null, maxSize, Duration.ofMinutes(5)), now::get);
+	}
+}
@@ -0,0 +1,172 @@
+package com.sp94dev.wallet.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.sp94dev.wallet.transaction.dto.TransactionBucket;
+
+class ColumnarTransactionRepositoryTests {
+
+	private final ColumnarTransactionRepository repository = new ColumnarTransactionRepository();
+
+	@Test
+	void savedRowsReadBackAcrossGrowth() {
+		for (int i = 0; i < 3000; i++) {
+			repository.save(new Transaction(null, (long) i % 7, TransactionType.BUY, 1.0, 10.0,
+					LocalDate.of(2024, 1, 1).plusDays(i)));
+		}
+
+		List<Transaction> all = repository.findAll();
+		assertThat(all).hasSize(3000);
+		assertThat(all.get(2999)).isEqualTo(new Transaction(3000L, 2999L % 7, TransactionType.BUY, 1.0, 10.0,
+				LocalDate.of(2024, 1, 1).plusDays(2999)));
+		assertThat(repository.stats().totalTransactions()).isEqualTo(3000);
+	}
+
+	@Test
+	void missingValuesRoundTripAsNull() {
+		Transaction saved = repository.save(new Transaction(null, null, null, null, null, null));
+
+		assertThat(repository.findAll()).containsExactly(new Transaction(saved.id(), null, null, null, null, null));
+	}
+
+	@Test
+	void findPageContinuesAfterCursor() {
+		for (int i = 0; i < 25; i++) {
+			repository.save(new Transaction(null, 1L, TransactionType.SELL, 2.0, 3.0, LocalDate.of(2024, 5, 1)));
+		}
+
+		List<Transaction> page = repository.findPage(10L, 10);
+		assertThat(page).extracting(Transaction::id).containsExactly(11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L);
+		assertThat(repository.findPage(20L, 10)).hasSize(5);
+		assertThat(repository.findPage(25L, 10)).isEmpty();
+	}
+
+	@Test
+	void updatedAndDeletedRowsAreReflectedInReadsAndStats() {
+		for (int i = 0; i < 5; i++) {
+			repository.save(new Transaction(null, 1L, TransactionType.BUY, 1.0, 10.0, LocalDate.of(2024, 5, 1)));
+		}
+		Transaction sell = new Transaction(2L, 1L, TransactionType.SELL, 1.0, 12.0, LocalDate.of(2024, 5, 2));
+
+		List<Optional<Transaction>> replaced = repository.updateAll(List.of(sell,
+				new Transaction(99L, 1L, TransactionType.SELL, 1.0, 12.0, LocalDate.of(2024, 5, 2))));
+		List<Optional<Transaction>> removed = repository.deleteAll(List.of(4L, 4L));
+
+		assertThat(replaced.get(0)).map(Transaction::type).contains(TransactionType.BUY);
+		assertThat(replaced.get(1)).isEmpty();
+		assertThat(removed.get(0)).map(Transaction::id).contains(4L);
+		assertThat(removed.get(1)).isEmpty();
+		assertThat(repository.findAll()).extracting(Transaction::id).containsExactly(1L, 2L, 3L, 5L);
+		assertThat(repository.findPage(3L, 10)).extracting(Transaction::id).containsExactly(5L);
+		assertThat(repository.findAll().get(1)).isEqualTo(sell);
+		assertThat(repository.count()).isEqualTo(4);
+		assertThat(repository.stats().totalTransactions()).isEqualTo(4);
+	}
+
+	@Test
+	void dateQueriesMatchTheIndexedMapStore() {
+		InMemoryTransactionRepository indexed = new InMemoryTransactionRepository();
+		for (int i = 0; i < 400; i++) {
+			Transaction transaction = new Transaction(null, (long) i % 3, TransactionType.BUY, 2.0, 5.0,
+					LocalDate.of(2024, 1, 1).plusDays((i * 37) % 90));
+			repository.save(transaction);
+			indexed.save(transaction);
+		}
+		for (TransactionRepository store : List.of(repository, indexed)) {
+			store.updateAll(List.of(new Transaction(7L, 2L, TransactionType.SELL, 1.0, 5.0, LocalDate.of(2024, 2, 29))));
+			store.deleteAll(List.of(8L, 9L));
+		}
+		LocalDate from = LocalDate.of(2024, 2, 10);
+		LocalDate to = LocalDate.of(2024, 3, 5);
+
+		assertThat(repository.findByDate(1L, from, to)).isEqualTo(indexed.findByDate(1L, from, to)).isNotEmpty()
+				.allMatch(transaction -> transaction.instrumentId() == 1 && !transaction.date().isBefore(from)
+						&& !transaction.date().isAfter(to));
+		assertThat(repository.findByDate(null, from, null)).isEqualTo(indexed.findByDate(null, from, null));
+		assertThat(repository.findByDate(null, to, from)).isEmpty();
+
+		List<TransactionBucket> months = repository.buckets(null, null, null, BucketInterval.MONTH);
+		assertThat(months).extracting(TransactionBucket::start)
+				.containsExactly(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1));
+		assertThat(months.stream().mapToLong(TransactionBucket::count).sum()).isEqualTo(398);
+		assertThat(repository.buckets(2L, LocalDate.of(2024, 2, 29), LocalDate.of(2024, 2, 29), BucketInterval.DAY))
+				.isEqualTo(indexed.buckets(2L, LocalDate.of(2024, 2, 29), LocalDate.of(2024, 2, 29), BucketInterval.DAY))
+				.singleElement()
+				.satisfies(bucket -> assertThat(bucket.count()).isEqualTo(
+						indexed.findByDate(2L, LocalDate.of(2024, 2, 29), LocalDate.of(2024, 2, 29)).size()));
+	}
+
+	@Test
+	void findByInstrumentReturnsDatedAndUndatedRowsInIdOrder() {
+		InMemoryTransactionRepository indexed = new InMemoryTransactionRepository();
+		for (int i = 0; i < 50; i++) {
+			Transaction transaction = new Transaction(null, (long) i % 2, TransactionType.BUY, 1.0, 5.0,
+					i % 7 == 0 ? null : LocalDate.of(2024, 3, 1).minusDays(i));
+			repository.save(transaction);
+			indexed.save(transaction);
+		}
+		for (TransactionRepository store : List.of(repository, indexed)) {
+			store.updateAll(List.of(new Transaction(3L, 1L, TransactionType.SELL, 1.0, 5.0, null)));
+			store.deleteAll(List.of(15L));
+		}
+
+		List<Transaction> odd = repository.findByInstrument(1L);
+		assertThat(odd).isEqualTo(indexed.findByInstrument(1L)).extracting(Transaction::id).isSorted()
+				.contains(3L).hasSize(26);
+		assertThat(odd).filteredOn(transaction -> transaction.date() == null).isNotEmpty();
+		assertThat(repository.findByInstrument(0L)).isEqualTo(indexed.findByInstrument(0L)).hasSize(23)
+				.extracting(Transaction::id).doesNotContain(3L, 15L);
+		assertThat(repository.findByInstrument(42L)).isEmpty();
+		assertThat(indexed.findByInstrument(42L)).isEmpty();
+	}
+
+	@Test
+	void parallelAggregationMatchesSequentialGrouping() {
+		InMemoryTransactionRepository map = new InMemoryTransactionRepository();
+		List<Transaction> batch = new ArrayList<>();
+		for (int i = 0; i < 300_000; i++) {
+			batch.add(new Transaction(null, i % 11 == 0 ? null : (long) i % 97,
+					i % 3 == 0 ? TransactionType.SELL : TransactionType.BUY, (double) (i % 5), 2.0,
+					LocalDate.of(2020, 1, 1).plusDays(i % 1000)));
+		}
+		repository.saveAll(batch);
+		map.saveAll(batch);
+		repository.deleteAll(List.of(1L, 2L, 3L));
+		map.deleteAll(List.of(1L, 2L, 3L));
+		LocalDate from = LocalDate.of(2020, 6, 1);
+		LocalDate to = LocalDate.of(2021, 5, 31);
+
+		for (GroupBy groupBy : GroupBy.values()) {
+			Map<Long, double[]> sums = new HashMap<>();
+			for (Transaction transaction : map.findByDate(null, from, to)) {
+				long key = TransactionAggregation.key(groupBy, transaction);
+				if (key != TransactionAggregation.NO_KEY) {
+					double[] row = sums.computeIfAbsent(key, k -> new double[3]);
+					row[0]++;
+					row[1] += transaction.quantity();
+					row[2] += transaction.quantity() * transaction.price();
+				}
+			}
+			Map<Long, List<Double>> expected = new HashMap<>();
+			sums.forEach((key, row) -> expected.put(key, List.of(row[0], row[1], row[2])));
+			assertThat(rows(repository.aggregate(groupBy, from, to))).as("columnar by %s", groupBy)
+					.isEqualTo(rows(map.aggregate(groupBy, from, to))).containsExactlyInAnyOrderEntriesOf(expected);
+		}
+		assertThat(rows(repository.aggregate(GroupBy.TYPE, null, null))).containsOnlyKeys(0L, 1L);
+	}
+
+	private static Map<Long, List<Double>> rows(AggregateTable table) {
+		Map<Long, List<Double>> rows = new HashMap<>();
+		table.forEach((key, count, volume, value) -> rows.put(key, List.of((double) count, volume, value)));
+		return rows;
+	}
+}
@@ -0,0 +1,232 @@
+package com.sp94dev.wallet.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class DurableTransactionRepositoryTests {
+
+	@TempDir
+	Path directory;
+
+	private DurableTransactionRepository open(int segmentBytes) {
+		return new DurableTransactionRepository(new TransactionLogProperties(directory.toString(),
+				DataSize.ofBytes(segmentBytes), true, Duration.ofHours(1)));
+	}
+
+	private static Transaction transaction(int i) {
+		return new Transaction(null, (long) i % 5, TransactionType.BUY, 1.0 + i, 10.0,
+				LocalDate.of(2024, 1, 1).plusDays(i));
+	}
+
+	@Test
+	void transactionsSurviveRestartAcrossSegments() throws Exception {
+		DurableTransactionRepository repository = open(TransactionLog.RECORD_SIZE * 10);
+		for (int i = 0; i < 25; i++) {
+			repository.save(transaction(i));
+		}
+		repository.save(new Transaction(null, null, null, null, null, null));
+		List<Transaction> before = repository.findAll();
+		repository.close();
+
+		DurableTransactionRepository reopened = open(TransactionLog.RECORD_SIZE * 10);
+		assertThat(reopened.findAll()).isEqualTo(before);
+		InMemoryTransactionRepository expected = new InMemoryTransactionRepository();
+		expected.restore(before);
+		assertThat(reopened.stats()).isEqualTo(expected.stats());
+		assertThat(reopened.save(transaction(99)).id()).isEqualTo(27L);
+		reopened.close();
+	}
+
+	@Test
+	void concurrentWritersShareFlushesAndKeepEveryRow() throws Exception {
+		DurableTransactionRepository repository = open(TransactionLog.RECORD_SIZE * 1000);
+		ExecutorService writers = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			futures.add(writers.submit(() -> {
+				for (int i = 0; i < 500; i++) {
+					repository.save(transaction(i));
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		writers.shutdown();
+		repository.close();
+
+		DurableTransactionRepository reopened = open(TransactionLog.RECORD_SIZE * 1000);
+		assertThat(reopened.findAll()).hasSize(4000);
+		assertThat(reopened.findAll()).extracting(Transaction::id).doesNotHaveDuplicates();
+		reopened.close();
+	}
+
+	@Test
+	void tornTailIsIgnoredAndOverwritten() throws Exception {
+		DurableTransactionRepository repository = open(TransactionLog.RECORD_SIZE * 100);
+		repository.saveAll(List.of(transaction(1), transaction(2), transaction(3)));
+		repository.close();
+
+		Path segment;
+		try (var files = Files.list(directory)) {
+			segment = files.findFirst().orElseThrow();
+		}
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 42 }), TransactionLog.RECORD_SIZE * 2L + 20);
+		}
+
+		DurableTransactionRepository reopened = open(TransactionLog.RECORD_SIZE * 100);
+		assertThat(reopened.findAll()).extracting(Transaction::id).containsExactly(1L, 2L);
+		assertThat(reopened.save(transaction(4)).id()).isEqualTo(3L);
+		reopened.close();
+	}
+
+	@Test
+	void recordsAfterATornOneDoNotComeBackAfterTheNextAppend() throws Exception {
+		DurableTransactionRepository repository = open(TransactionLog.RECORD_SIZE * 100);
+		repository.saveAll(List.of(transaction(1), transaction(2), transaction(3), transaction(4)));
+		repository.close();
+
+		Path segment;
+		try (var files = Files.list(directory)) {
+			segment = files.findFirst().orElseThrow();
+		}
+		// tear the second record; the third and fourth stay valid on disk
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 42 }), TransactionLog.RECORD_SIZE + 20L);
+		}
+
+		DurableTransactionRepository reopened = open(TransactionLog.RECORD_SIZE * 100);
+		assertThat(reopened.findAll()).extracting(Transaction::id).containsExactly(1L);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			ByteBuffer tail = ByteBuffer.allocate(TransactionLog.RECORD_SIZE * 3);
+			channel.read(tail, TransactionLog.RECORD_SIZE);
+			assertThat(tail.array()).containsOnly(0);
+		}
+		Transaction appended = reopened.save(transaction(5));
+		assertThat(appended.id()).isEqualTo(2L);
+		reopened.close();
+
+		DurableTransactionRepository again = open(TransactionLog.RECORD_SIZE * 100);
+		assertThat(again.findAll()).extracting(Transaction::id).containsExactly(1L, 2L);
+		assertThat(again.findAll().getLast()).isEqualTo(appended);
+		again.close();
+	}
+
+	@Test
+	void compactionMergesSealedSegmentsWithoutLosingRows() throws Exception {
+		DurableTransactionRepository repository = open(TransactionLog.RECORD_SIZE * 4);
+		for (int i = 0; i < 30; i++) {
+			repository.save(transaction(i));
+		}
+		repository.compact();
+		try (var files = Files.list(directory)) {
+			assertThat(files.count()).isEqualTo(2);
+		}
+		List<Transaction> before = repository.findAll();
+		repository.close();
+
+		DurableTransactionRepository reopened = open(TransactionLog.RECORD_SIZE * 4);
+		assertThat(reopened.findAll()).isEqualTo(before);
+		reopened.close();
+	}
+
+	@Test
+	void updatesAndDeletesSurviveRestart() throws Exception {
+		DurableTransactionRepository repository = open(TransactionLog.RECORD_SIZE * 10);
+		repository.saveAll(List.of(transaction(1), transaction(2), transaction(3)));
+		Transaction sell = new Transaction(2L, 4L, TransactionType.SELL, 5.0, 20.0, LocalDate.of(2024, 6, 1));
+		List<Optional<Transaction>> replaced = repository.updateAll(List.of(sell));
+		List<Optional<Transaction>> removed = repository.deleteAll(List.of(1L, 42L));
+		List<Transaction> before = repository.findAll();
+		repository.close();
+
+		assertThat(replaced.get(0)).map(Transaction::type).contains(TransactionType.BUY);
+		assertThat(removed).extracting(Optional::isPresent).containsExactly(true, false);
+		DurableTransactionRepository reopened = open(TransactionLog.RECORD_SIZE * 10);
+		assertThat(reopened.findAll()).isEqualTo(before).extracting(Transaction::id).containsExactly(2L, 3L);
+		assertThat(reopened.findAll().get(0)).isEqualTo(sell);
+		assertThat(reopened.stats().totalTransactions()).isEqualTo(2);
+		assertThat(reopened.save(transaction(4)).id()).isEqualTo(4L);
+		reopened.close();
+	}
+
+	@Test
+	void compactionDropsDeletedAndSupersededRows() throws Exception {
+		DurableTransactionRepository repository = open(TransactionLog.RECORD_SIZE * 4);
+		for (int i = 0; i < 12; i++) {
+			repository.save(transaction(i));
+		}
+		repository.updateAll(List.of(new Transaction(3L, 1L, TransactionType.SELL, 1.0, 1.0, LocalDate.of(2024, 2, 1))));
+		repository.deleteAll(List.of(1L, 2L, 12L));
+		repository.compact();
+		List<Transaction> before = repository.findAll();
+		repository.close();
+
+		DurableTransactionRepository reopened = open(TransactionLog.RECORD_SIZE * 4);
+		assertThat(reopened.findAll()).isEqualTo(before).hasSize(9);
+		// the highest id was deleted, yet ids are never reused
+		assertThat(reopened.save(transaction(99)).id()).isEqualTo(13L);
+		reopened.close();
+	}
+
+	@Test
+	void batchThatCannotRollIsNotWrittenAtAll() throws Exception {
+		DurableTransactionRepository repository = open(TransactionLog.RECORD_SIZE * 4);
+		repository.saveAll(List.of(transaction(1), transaction(2)));
+		// the batch needs segments 2 to 4; segment 3 cannot be created
+		Path blocker = Files.createDirectory(directory.resolve("segment-00000003.log"));
+		List<Transaction> batch = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			batch.add(transaction(10 + i));
+		}
+
+		assertThatThrownBy(() -> repository.saveAll(batch)).isInstanceOf(UncheckedIOException.class);
+		assertThat(directory.resolve("segment-00000002.log")).doesNotExist();
+		assertThat(repository.findAll()).extracting(Transaction::id).containsExactly(1L, 2L);
+		Files.delete(blocker);
+		assertThat(repository.saveAll(List.of(transaction(3), transaction(4), transaction(5))))
+				.extracting(Transaction::id).containsExactly(3L, 4L, 5L);
+		repository.close();
+
+		DurableTransactionRepository reopened = open(TransactionLog.RECORD_SIZE * 4);
+		assertThat(reopened.findAll()).extracting(Transaction::id).containsExactly(1L, 2L, 3L, 4L, 5L);
+		reopened.close();
+	}
+
+	@Test
+	void batchThatFailsHalfwayLeavesNoRecordsBehind() throws Exception {
+		DurableTransactionRepository repository = open(TransactionLog.RECORD_SIZE * 100);
+		repository.save(transaction(1));
+
+		assertThatThrownBy(() -> repository.saveAll(Arrays.asList(transaction(2), transaction(3), null)))
+				.isInstanceOf(NullPointerException.class);
+		assertThat(repository.save(transaction(4)).id()).isEqualTo(2L);
+		repository.close();
+
+		DurableTransactionRepository reopened = open(TransactionLog.RECORD_SIZE * 100);
+		assertThat(reopened.findAll()).extracting(Transaction::id).containsExactly(1L, 2L);
+		assertThat(reopened.findAll().getLast().quantity()).isEqualTo(5.0);
+		reopened.close();
+	}
+}
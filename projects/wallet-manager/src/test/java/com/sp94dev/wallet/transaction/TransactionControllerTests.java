@@ -0,0 +1,112 @@
+package com.sp94dev.wallet.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.sp94dev.wallet.batch.BatchRequestReader;
+import com.sp94dev.wallet.portfolio.PortfolioService;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class TransactionControllerTests {
+
+	private final InMemoryTransactionRepository repository = new InMemoryTransactionRepository();
+	private final JsonMapper jsonMapper = JsonMapper.builder().build();
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() {
+		TransactionService service = new TransactionService(repository, new PortfolioService(repository, null, null),
+				null);
+		mvc = MockMvcBuilders.standaloneSetup(new TransactionController(service, null,
+				new BatchRequestReader(jsonMapper), jsonMapper, null)).build();
+	}
+
+	private void save(int count) {
+		List<Transaction> transactions = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			transactions.add(new Transaction(null, 1L, TransactionType.BUY, 1.0, 10.0 + i, LocalDate.of(2024, 1, 1)));
+		}
+		repository.saveAll(transactions);
+	}
+
+	@Test
+	void limitOutsideTheAllowedRangeIsRejected() throws Exception {
+		save(3);
+
+		mvc.perform(get("/api/transactions").param("limit", "0")).andExpect(status().isBadRequest());
+		mvc.perform(get("/api/transactions").param("limit", "-5")).andExpect(status().isBadRequest());
+		mvc.perform(get("/api/transactions").param("limit", "1001")).andExpect(status().isBadRequest());
+		mvc.perform(get("/api/transactions").param("limit", "1000"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(3));
+	}
+
+	@Test
+	void nextCursorIsSentOnlyWhenAnotherPageExists() throws Exception {
+		save(4);
+
+		mvc.perform(get("/api/transactions").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].id").value(contains(1, 2)))
+				.andExpect(header().string("X-Next-Cursor", "2"));
+		// the last page is exactly full: no cursor pointing at an empty page
+		mvc.perform(get("/api/transactions").param("limit", "2").param("after", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].id").value(contains(3, 4)))
+				.andExpect(header().doesNotExist("X-Next-Cursor"));
+		mvc.perform(get("/api/transactions").param("limit", "2").param("after", "4"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(0))
+				.andExpect(header().doesNotExist("X-Next-Cursor"));
+	}
+
+	@Test
+	void ndjsonStreamWritesEveryTransactionOncePerLine() throws Exception {
+		// two full store pages and one row more
+		save(2001);
+		repository.deleteAll(List.of(1000L, 1001L));
+
+		List<Long> ids = streamedIds(null);
+		assertThat(ids).hasSize(1999).doesNotHaveDuplicates().isSorted().doesNotContain(1000L, 1001L);
+		assertThat(ids.getLast()).isEqualTo(2001L);
+
+		assertThat(streamedIds(1999L)).containsExactly(2000L, 2001L);
+		assertThat(streamedIds(2001L)).isEmpty();
+	}
+
+	private List<Long> streamedIds(Long after) throws Exception {
+		var builder = get("/api/transactions").accept(MediaType.APPLICATION_NDJSON);
+		if (after != null) {
+			builder.param("after", after.toString());
+		}
+		MvcResult started = mvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+		String body = mvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		List<Long> ids = new ArrayList<>();
+		for (String line : body.split("\n")) {
+			if (!line.isEmpty()) {
+				ids.add(jsonMapper.readTree(line).get("id").asLong());
+			}
+		}
+		return ids;
+	}
+}
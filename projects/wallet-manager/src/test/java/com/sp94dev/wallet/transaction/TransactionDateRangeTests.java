@@ -0,0 +1,75 @@
+package com.sp94dev.wallet.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class TransactionDateRangeTests {
+
+	private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+	static Stream<Arguments> stores() {
+		return Stream.of(
+				Arguments.of("in-memory", (Supplier<TransactionRepository>) InMemoryTransactionRepository::new),
+				Arguments.of("columnar", (Supplier<TransactionRepository>) ColumnarTransactionRepository::new));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("stores")
+	void rangeQueriesMatchAFullScan(String name, Supplier<TransactionRepository> store) {
+		TransactionRepository repository = store.get();
+		List<Transaction> batch = new ArrayList<>();
+		for (int i = 0; i < 600; i++) {
+			// dates arrive out of order, a few rows have no date or no instrument
+			LocalDate date = i % 50 == 0 ? null : START.plusDays((i * 37) % 120);
+			batch.add(new Transaction(null, i % 61 == 0 ? null : (long) i % 4, TransactionType.BUY, 1.0, 10.0, date));
+		}
+		repository.saveAll(batch);
+		repository.updateAll(List.of(
+				new Transaction(7L, 2L, TransactionType.SELL, 1.0, 11.0, START.plusDays(100)),
+				new Transaction(8L, 3L, TransactionType.SELL, 1.0, 11.0, null),
+				new Transaction(51L, 1L, TransactionType.BUY, 1.0, 11.0, START.plusDays(5))));
+		repository.deleteAll(List.of(9L, 10L, 120L));
+
+		LocalDate to = START.plusDays(100);
+		LocalDate from = to.minusDays(30);
+		for (Long instrumentId : new Long[] { null, 0L, 1L, 2L, 3L, 42L }) {
+			assertThat(repository.findByDate(instrumentId, from, to))
+					.as("instrument %s", instrumentId)
+					.isEqualTo(scan(repository, instrumentId, from, to))
+					.allMatch(transaction -> !transaction.date().isBefore(from) && !transaction.date().isAfter(to));
+			assertThat(repository.findByDate(instrumentId, null, from))
+					.isEqualTo(scan(repository, instrumentId, null, from));
+			assertThat(repository.findByDate(instrumentId, to, null))
+					.isEqualTo(scan(repository, instrumentId, to, null));
+			assertThat(repository.findByDate(instrumentId, null, null))
+					.isEqualTo(scan(repository, instrumentId, null, null));
+			assertThat(repository.findByDate(instrumentId, to, from)).isEmpty();
+		}
+		assertThat(repository.findByDate(1L, from, to)).isNotEmpty();
+		assertThat(repository.findByDate(42L, null, null)).isEmpty();
+		assertThat(repository.findByDate(2L, to, to)).extracting(Transaction::id).contains(7L);
+		assertThat(repository.findByDate(null, START, START.plusDays(200)))
+				.extracting(Transaction::id).doesNotContain(8L, 9L, 10L, 120L);
+	}
+
+	private static List<Transaction> scan(TransactionRepository repository, Long instrumentId, LocalDate from,
+			LocalDate to) {
+		return repository.findAll().stream()
+				.filter(transaction -> transaction.date() != null)
+				.filter(transaction -> instrumentId == null || instrumentId.equals(transaction.instrumentId()))
+				.filter(transaction -> from == null || !transaction.date().isBefore(from))
+				.filter(transaction -> to == null || !transaction.date().isAfter(to))
+				.sorted(Comparator.comparing(Transaction::date).thenComparing(Transaction::id))
+				.toList();
+	}
+}
@@ -0,0 +1,231 @@
+package com.sp94dev.wallet.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import com.sp94dev.wallet.portfolio.PortfolioService;
+import com.sp94dev.wallet.transaction.dto.IngestAck;
+
+class TransactionIngestPipelineTests {
+
+	private final List<Transaction> applied = Collections.synchronizedList(new ArrayList<>());
+
+	@Test
+	void shutdownAppliesEverythingAcceptedInOrder() {
+		TransactionIngestPipeline pipeline = pipeline(1024, applied::addAll);
+		pipeline.start();
+		for (long i = 1; i <= 500; i++) {
+			assertThat(pipeline.offer(List.of(transaction(i), transaction(-i)))).isEqualTo(2 * i);
+		}
+		pipeline.stop();
+
+		assertThat(applied).hasSize(1000);
+		assertThat(applied.get(998).instrumentId()).isEqualTo(500L);
+		assertThat(applied.get(999).instrumentId()).isEqualTo(-500L);
+		assertThat(pipeline.status().appliedSequence()).isEqualTo(1000);
+		assertThat(pipeline.status().pending()).isZero();
+		assertThatIllegalStateException().isThrownBy(() -> pipeline.offer(List.of(transaction(1))));
+	}
+
+	@Test
+	void fullBufferRejectsTheWholeRequest() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		TransactionIngestPipeline pipeline = pipeline(4, batch -> {
+			await(release);
+			applied.addAll(batch);
+		});
+		pipeline.start();
+
+		assertThat(pipeline.offer(List.of(transaction(1), transaction(2), transaction(3)))).isEqualTo(3);
+		assertThat(pipeline.offer(List.of(transaction(4), transaction(5)))).isEqualTo(-1);
+		assertThat(pipeline.offer(List.of(transaction(4)))).isEqualTo(4);
+		assertThat(pipeline.status().rejected()).isEqualTo(2);
+
+		release.countDown();
+		pipeline.stop();
+		assertThat(applied).extracting(Transaction::instrumentId).containsExactly(1L, 2L, 3L, 4L);
+	}
+
+	@Test
+	void failedBatchIsRetriedBeforeAnythingIsParked() {
+		AtomicInteger calls = new AtomicInteger();
+		TransactionIngestPipeline pipeline = pipeline(16, batch -> {
+			if (calls.incrementAndGet() == 1) {
+				throw new IllegalStateException("store unavailable");
+			}
+			applied.addAll(batch);
+		});
+		pipeline.start();
+		pipeline.offer(List.of(transaction(1), transaction(2)));
+		pipeline.stop();
+
+		assertThat(applied).extracting(Transaction::instrumentId).containsExactly(1L, 2L);
+		assertThat(pipeline.status().applied()).isEqualTo(2);
+		assertThat(pipeline.status().parked()).isZero();
+		assertThat(pipeline.parked()).isEmpty();
+	}
+
+	@Test
+	void transactionsThatKeepFailingAreParkedAndCanBeReplayed() {
+		AtomicBoolean broken = new AtomicBoolean(true);
+		TransactionIngestPipeline pipeline = pipeline(16, batch -> {
+			if (broken.get() && batch.stream().anyMatch(t -> t.instrumentId() == 2L)) {
+				throw new IllegalArgumentException("bad transaction");
+			}
+			applied.addAll(batch);
+		});
+		pipeline.start();
+		pipeline.offer(List.of(transaction(1), transaction(2), transaction(3)));
+		awaitApplied(pipeline, 3);
+		pipeline.offer(List.of(transaction(4)));
+		awaitApplied(pipeline, 4);
+
+		// the rest of the batch got through one by one, the bad one is kept instead of dropped
+		assertThat(applied).extracting(Transaction::instrumentId).containsExactly(1L, 3L, 4L);
+		assertThat(pipeline.parked()).extracting(Transaction::instrumentId).containsExactly(2L);
+		assertThat(pipeline.status().applied()).isEqualTo(3);
+		assertThat(pipeline.status().parked()).isEqualTo(1);
+		assertThat(pipeline.status().failed()).isZero();
+
+		broken.set(false);
+		IngestAck ack = pipeline.replayParked();
+		assertThat(ack.accepted()).isEqualTo(1);
+		assertThat(ack.sequence()).isEqualTo(5);
+		pipeline.stop();
+
+		assertThat(applied).extracting(Transaction::instrumentId).containsExactly(1L, 3L, 4L, 2L);
+		assertThat(pipeline.parked()).isEmpty();
+		assertThat(pipeline.status().applied()).isEqualTo(4);
+		assertThat(pipeline.replayParked().accepted()).isZero();
+	}
+
+	@Test
+	void failuresBeyondTheParkingLotAreDroppedAndCounted() {
+		TransactionIngestPipeline pipeline = pipeline(16, batch -> {
+			throw new IllegalStateException("store unavailable");
+		});
+		pipeline.start();
+		pipeline.offer(List.of(transaction(1), transaction(2), transaction(3)));
+		awaitApplied(pipeline, 3);
+		pipeline.offer(List.of(transaction(4), transaction(5)));
+		pipeline.stop();
+
+		assertThat(pipeline.parked()).extracting(Transaction::instrumentId).containsExactly(1L, 2L, 3L, 4L);
+		assertThat(pipeline.status().failed()).isEqualTo(1);
+		assertThat(pipeline.status().applied()).isZero();
+	}
+
+	@Test
+	void batchThatFailsAfterBeingStoredIsNotStoredTwice() {
+		InMemoryTransactionRepository repository = new InMemoryTransactionRepository();
+		AtomicInteger failures = new AtomicInteger(1);
+		PortfolioService portfolio = new PortfolioService(repository, null, null) {
+			@Override
+			public void applyAll(List<Transaction> transactions) {
+				if (failures.getAndDecrement() > 0) {
+					// the batch is in the store and half way into the portfolio
+					super.applyAll(transactions.subList(0, 1));
+					throw new IllegalStateException("portfolio unavailable");
+				}
+				super.applyAll(transactions);
+			}
+		};
+		TransactionService service = new TransactionService(repository, portfolio, null);
+		TransactionIngestPipeline pipeline = pipeline(16, service::createAll);
+		pipeline.start();
+		pipeline.offer(List.of(transaction(1), transaction(2), transaction(3)));
+		pipeline.stop();
+
+		assertThat(repository.findAll()).extracting(Transaction::instrumentId).containsExactly(1L, 2L, 3L);
+		assertThat(repository.stats().totalTransactions()).isEqualTo(3);
+		assertThat(pipeline.status().applied()).isEqualTo(3);
+		assertThat(pipeline.parked()).isEmpty();
+	}
+
+	@Test
+	void partiallyStoredBatchIsNeitherRetriedNorParked() {
+		AtomicInteger calls = new AtomicInteger();
+		TransactionIngestPipeline pipeline = pipeline(16, batch -> {
+			calls.incrementAndGet();
+			throw new PartialWriteException("half stored", new IllegalStateException("store unavailable"));
+		});
+		pipeline.start();
+		pipeline.offer(List.of(transaction(1), transaction(2)));
+		pipeline.stop();
+
+		assertThat(calls).hasValue(1);
+		assertThat(pipeline.parked()).isEmpty();
+		assertThat(pipeline.status().failed()).isEqualTo(2);
+		assertThat(pipeline.status().applied()).isZero();
+	}
+
+	@Test
+	void concurrentProducersLoseNothing() throws Exception {
+		TransactionIngestPipeline pipeline = pipeline(256, applied::addAll);
+		pipeline.start();
+		int producers = 4;
+		int perProducer = 5000;
+		try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				long instrumentId = p;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < perProducer; i++) {
+						// a full buffer is backpressure: retry like a client would after 429
+						while (pipeline.offer(List.of(transaction(instrumentId))) < 0) {
+							Thread.onSpinWait();
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		pipeline.stop();
+
+		assertThat(applied).hasSize(producers * perProducer);
+		for (long p = 0; p < producers; p++) {
+			long instrumentId = p;
+			assertThat(applied.stream().filter(t -> t.instrumentId() == instrumentId)).hasSize(perProducer);
+		}
+	}
+
+	private static TransactionIngestPipeline pipeline(int bufferSize,
+			Consumer<List<Transaction>> sink) {
+		return new TransactionIngestPipeline(sink, new TransactionIngestProperties(true, bufferSize, 64, 2, Duration.ofMillis(1), 4));
+	}
+
+	private static Transaction transaction(long instrumentId) {
+		return new Transaction(null, instrumentId, TransactionType.BUY, 1.0, 10.0, LocalDate.of(2024, 1, 2));
+	}
+
+	private static void awaitApplied(TransactionIngestPipeline pipeline, long sequence) {
+		while (pipeline.status().appliedSequence() < sequence) {
+			Thread.onSpinWait();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
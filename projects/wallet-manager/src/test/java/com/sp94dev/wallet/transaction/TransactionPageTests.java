@@ -0,0 +1,51 @@
+package com.sp94dev.wallet.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class TransactionPageTests {
+
+	static Stream<Arguments> stores() {
+		return Stream.of(
+				Arguments.of("in-memory", (Supplier<TransactionRepository>) InMemoryTransactionRepository::new),
+				Arguments.of("columnar", (Supplier<TransactionRepository>) ColumnarTransactionRepository::new));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("stores")
+	void findPageBoundaries(String name, Supplier<TransactionRepository> store) {
+		TransactionRepository repository = store.get();
+		List<Transaction> batch = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			batch.add(new Transaction(null, 1L, TransactionType.BUY, 1.0, 10.0, LocalDate.of(2024, 1, 1)));
+		}
+		repository.saveAll(batch);
+		repository.deleteAll(List.of(4L, 5L));
+
+		assertThat(ids(repository.findPage(null, 3))).containsExactly(1L, 2L, 3L);
+		// a deleted cursor still continues after it, and deleted rows are skipped, not counted
+		assertThat(ids(repository.findPage(4L, 3))).containsExactly(6L, 7L, 8L);
+		assertThat(ids(repository.findPage(3L, 3))).containsExactly(6L, 7L, 8L);
+		assertThat(ids(repository.findPage(0L, 1))).containsExactly(1L);
+		assertThat(ids(repository.findPage(-7L, 1))).containsExactly(1L);
+		assertThat(ids(repository.findPage(8L, 3))).containsExactly(9L, 10L);
+		assertThat(ids(repository.findPage(8L, 2))).containsExactly(9L, 10L);
+		assertThat(repository.findPage(10L, 3)).isEmpty();
+		assertThat(repository.findPage(999L, 3)).isEmpty();
+		assertThat(repository.findPage(null, 0)).isEmpty();
+		assertThat(repository.findPage(null, Integer.MAX_VALUE)).hasSize(8);
+	}
+
+	private static List<Long> ids(List<Transaction> page) {
+		return page.stream().map(Transaction::id).toList();
+	}
+}
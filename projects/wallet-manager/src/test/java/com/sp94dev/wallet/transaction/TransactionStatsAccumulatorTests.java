@@ -0,0 +1,191 @@
+package com.sp94dev.wallet.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.sp94dev.wallet.transaction.dto.TransactionStats;
+
+class TransactionStatsAccumulatorTests {
+
+	private static final TransactionType[] TYPES = TransactionType.values();
+
+	@Test
+	void incrementalStatsMatchARecomputationAfterSavesUpdatesAndDeletes() {
+		InMemoryTransactionRepository repository = new InMemoryTransactionRepository();
+		Random random = new Random(11);
+		List<Transaction> batch = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			batch.add(transaction(random, i % 17 == 0));
+		}
+		repository.saveAll(batch);
+		for (int i = 0; i < 50; i++) {
+			repository.save(transaction(random, false));
+		}
+		assertMatchesRecomputation(repository.stats(), repository.findAll());
+
+		List<Transaction> updates = new ArrayList<>();
+		for (long id = 1; id <= 350; id += 3) {
+			updates.add(withId(id, transaction(random, id % 5 == 0)));
+		}
+		repository.updateAll(updates);
+		assertMatchesRecomputation(repository.stats(), repository.findAll());
+
+		List<Long> deletes = new ArrayList<>();
+		for (long id = 2; id <= 350; id += 2) {
+			deletes.add(id);
+		}
+		repository.deleteAll(deletes);
+		assertMatchesRecomputation(repository.stats(), repository.findAll());
+	}
+
+	@Test
+	void instrumentWithEveryTransactionRemovedDropsOut() {
+		TransactionStatsAccumulator stats = new TransactionStatsAccumulator();
+		Transaction buy = new Transaction(1L, 7L, TransactionType.BUY, 0.1, 0.3, LocalDate.of(2024, 1, 1));
+		Transaction other = new Transaction(2L, 8L, TransactionType.SELL, 2.0, 5.0, LocalDate.of(2024, 1, 1));
+		stats.addAll(List.of(buy, other));
+		stats.remove(buy);
+
+		assertThat(stats.snapshot().totalValueByInstrument()).containsOnlyKeys(8L);
+		assertThat(stats.snapshot().countByType()).containsOnlyKeys(TransactionType.SELL);
+		assertMatchesRecomputation(stats.snapshot(), List.of(other));
+	}
+
+	@Test
+	void batchAddMatchesOneByOne() {
+		Random random = new Random(3);
+		List<Transaction> transactions = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			transactions.add(transaction(random, i % 9 == 0));
+		}
+		TransactionStatsAccumulator batched = new TransactionStatsAccumulator();
+		TransactionStatsAccumulator single = new TransactionStatsAccumulator();
+		batched.addAll(transactions);
+		transactions.forEach(single::add);
+
+		assertMatchesRecomputation(batched.snapshot(), transactions);
+		assertMatchesRecomputation(single.snapshot(), transactions);
+	}
+
+	@Test
+	void concurrentWritersMatchARecomputation() throws Exception {
+		InMemoryTransactionRepository repository = new InMemoryTransactionRepository();
+		int threads = 8;
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				long seed = t;
+				futures.add(executor.submit(() -> {
+					Random random = new Random(seed);
+					for (int i = 0; i < 500; i++) {
+						Transaction saved = repository.save(transaction(random, i % 13 == 0));
+						if (i % 3 == 0) {
+							repository.updateAll(List.of(withId(saved.id(), transaction(random, false))));
+						}
+						if (i % 4 == 0) {
+							repository.deleteAll(List.of(saved.id()));
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		assertMatchesRecomputation(repository.stats(), repository.findAll());
+	}
+
+	@Test
+	void snapshotNeverSeesHalfOfATransaction() throws Exception {
+		// writers share the read side of the lock and the snapshot takes the write side, so
+		// total, type counts and values always describe the same set of transactions
+		TransactionStatsAccumulator stats = new TransactionStatsAccumulator();
+		int writers = 6;
+		AtomicBoolean running = new AtomicBoolean(true);
+		CountDownLatch started = new CountDownLatch(writers);
+		try (ExecutorService executor = Executors.newFixedThreadPool(writers + 1)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < writers; t++) {
+				long instrumentId = t;
+				futures.add(executor.submit(() -> {
+					started.countDown();
+					Transaction transaction = new Transaction(null, instrumentId,
+							instrumentId % 2 == 0 ? TransactionType.BUY : TransactionType.SELL, 1.0, 1.0,
+							LocalDate.of(2024, 1, 1));
+					while (running.get()) {
+						stats.add(transaction);
+						stats.addAll(List.of(transaction, transaction));
+						stats.remove(transaction);
+					}
+				}));
+			}
+			Future<Integer> reader = executor.submit(() -> {
+				started.await();
+				int snapshots = 0;
+				for (; snapshots < 2000; snapshots++) {
+					TransactionStats snapshot = stats.snapshot();
+					long byType = snapshot.countByType().values().stream().mapToLong(Long::longValue).sum();
+					double value = snapshot.totalValueByInstrument().values().stream()
+							.mapToDouble(Double::doubleValue).sum();
+					assertThat(byType).isEqualTo(snapshot.totalTransactions());
+					assertThat(value).isEqualTo(snapshot.totalTransactions());
+				}
+				return snapshots;
+			});
+			try {
+				assertThat(reader.get()).isEqualTo(2000);
+			} finally {
+				running.set(false);
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		assertThat(stats.snapshot().totalTransactions()).isEqualTo(stats.count());
+	}
+
+	private static void assertMatchesRecomputation(TransactionStats stats, Collection<Transaction> transactions) {
+		Map<TransactionType, Long> byType = transactions.stream()
+				.filter(transaction -> transaction.type() != null)
+				.collect(Collectors.groupingBy(Transaction::type, Collectors.counting()));
+		Map<Long, Double> valueByInstrument = transactions.stream()
+				.filter(transaction -> transaction.instrumentId() != null && transaction.price() != null
+						&& transaction.quantity() != null)
+				.collect(Collectors.groupingBy(Transaction::instrumentId,
+						Collectors.summingDouble(transaction -> transaction.price() * transaction.quantity())));
+
+		assertThat(stats.totalTransactions()).isEqualTo(transactions.size());
+		assertThat(stats.countByType()).isEqualTo(byType);
+		assertThat(stats.totalValueByInstrument()).containsOnlyKeys(valueByInstrument.keySet());
+		// adders sum in a different order than the stream, so allow for rounding
+		valueByInstrument.forEach((instrumentId, value) ->
+				assertThat(stats.totalValueByInstrument().get(instrumentId)).isCloseTo(value, within(1e-6)));
+	}
+
+	private static Transaction transaction(Random random, boolean incomplete) {
+		return new Transaction(null, incomplete && random.nextBoolean() ? null : (long) random.nextInt(6),
+				incomplete && random.nextBoolean() ? null : TYPES[random.nextInt(TYPES.length)],
+				incomplete && random.nextBoolean() ? null : 1.0 + random.nextInt(50),
+				10.0 + random.nextInt(1000) / 100.0, LocalDate.of(2024, 1, 1).plusDays(random.nextInt(100)));
+	}
+
+	private static Transaction withId(long id, Transaction transaction) {
+		return new Transaction(id, transaction.instrumentId(), transaction.type(), transaction.quantity(),
+				transaction.price(), transaction.date());
+	}
+}
@@ -0,0 +1,80 @@
+package com.sp94dev.wallet.transaction.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.InstanceOfAssertFactories.type;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.sp94dev.wallet.instrument.InMemoryInstrumentRepository;
+import com.sp94dev.wallet.instrument.InstrumentService;
+import com.sp94dev.wallet.portfolio.PortfolioService;
+import com.sp94dev.wallet.transaction.InMemoryTransactionRepository;
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionService;
+import com.sp94dev.wallet.transaction.dto.ImportResult;
+
+class TransactionImportServiceTests {
+
+	private static final String HEADER = "Symbol;Type;Volume;Open time;Open price";
+
+	private final InMemoryTransactionRepository repository = new InMemoryTransactionRepository();
+	// the repository starts with AAPL among its sample instruments
+	private final InstrumentService instrumentService = new InstrumentService(new InMemoryInstrumentRepository());
+
+	@Test
+	void failedBatchReportsWhatEarlierBatchesStored() {
+		AtomicInteger calls = new AtomicInteger();
+		TransactionService transactionService = new TransactionService(repository,
+				new PortfolioService(repository, null, null), null) {
+			@Override
+			public List<Transaction> createAll(List<Transaction> transactions) {
+				if (calls.incrementAndGet() == 2) {
+					throw new IllegalArgumentException("store rejected the batch");
+				}
+				return super.createAll(transactions);
+			}
+		};
+		TransactionImportService importService = new TransactionImportService(transactionService, instrumentService);
+
+		// one full batch of 10k rows, one bad row in it, then a second batch that fails to store
+		assertThatThrownBy(() -> importService.importXtbCsv(csv(12_000, 5)))
+				.isInstanceOf(ImportFailedException.class)
+				.extracting(e -> ((ImportFailedException) e).committed(), type(ImportResult.class))
+				.satisfies(committed -> {
+					assertThat(committed.rowsRead()).isEqualTo(10_000);
+					assertThat(committed.transactionsImported()).isEqualTo(9_999);
+					assertThat(committed.rowsRejected()).isEqualTo(1);
+					assertThat(committed.errors()).hasSize(2);
+					assertThat(committed.errors().getLast()).startsWith("Storing lines 10002-12001 failed");
+				});
+		assertThat(repository.count()).isEqualTo(9_999);
+	}
+
+	@Test
+	void headerWithoutRequiredColumnImportsNothing() {
+		TransactionImportService importService = new TransactionImportService(
+				new TransactionService(repository, new PortfolioService(repository, null, null), null),
+				instrumentService);
+
+		assertThatThrownBy(() -> importService.importXtbCsv(
+				new ByteArrayInputStream("Symbol;Type\nAAPL.US;BUY\n".getBytes(StandardCharsets.UTF_8))))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(repository.count()).isZero();
+	}
+
+	private static InputStream csv(int rows, int badRow) {
+		StringBuilder csv = new StringBuilder(HEADER).append('\n');
+		for (int i = 0; i < rows; i++) {
+			csv.append(i == badRow ? "UNKNOWN.US" : "AAPL.US").append(";BUY;1;2024-02-07;").append(100 + i % 50)
+					.append('\n');
+		}
+		return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,43 @@
+package com.sp94dev.wallet.transaction.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.sp94dev.wallet.transaction.Transaction;
+import com.sp94dev.wallet.transaction.TransactionType;
+
+class XtbCsvParserTests {
+
+	@Test
+	void closedPositionBecomesBuyAndSell() {
+		XtbCsvParser parser = XtbCsvParser.fromHeader("Position;Symbol;Type;Volume;Open time;Open price;Close time;Close price");
+
+		XtbPosition position = parser.parse("1001;AAPL.US;BUY;10;06.02.2024 15:30:00;185,50;01.03.2024 16:00:00;179,20");
+
+		assertThat(position.ticker()).isEqualTo("AAPL");
+		assertThat(position.toTransactions(1L)).containsExactly(
+				new Transaction(null, 1L, TransactionType.BUY, 10.0, 185.5, LocalDate.of(2024, 2, 6)),
+				new Transaction(null, 1L, TransactionType.SELL, 10.0, 179.2, LocalDate.of(2024, 3, 1)));
+	}
+
+	@Test
+	void openPositionWithQuotedFieldsBecomesSingleTransaction() {
+		XtbCsvParser parser = XtbCsvParser.fromHeader("\"Symbol\",\"Open price\",\"Type\",\"Volume\",\"Open time\",\"Close time\"");
+
+		XtbPosition position = parser.parse("\"MSFT.US\",\"405.10\",\"buy\",\"2\",\"2024-02-07\",\"\"");
+
+		assertThat(position.toTransactions(5L)).containsExactly(
+				new Transaction(null, 5L, TransactionType.BUY, 2.0, 405.1, LocalDate.of(2024, 2, 7)));
+	}
+
+	@Test
+	void headerWithoutRequiredColumnIsRejected() {
+		assertThatThrownBy(() -> XtbCsvParser.fromHeader("Symbol,Type,Volume"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("open time");
+	}
+}